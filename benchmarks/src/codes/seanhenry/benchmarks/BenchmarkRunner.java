@@ -0,0 +1,22 @@
+package codes.seanhenry.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark, or those matching the first argument, with the gc profiler to report allocation rates.
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException {
+    String include = args.length == 0 ? "codes\\.seanhenry\\.benchmarks\\..*" : args[0];
+    Options options = new OptionsBuilder()
+      .include(include)
+      .addProfiler(GCProfiler.class)
+      .build();
+    new Runner(options).run();
+  }
+}
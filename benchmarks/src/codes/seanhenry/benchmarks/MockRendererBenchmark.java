@@ -0,0 +1,44 @@
+package codes.seanhenry.benchmarks;
+
+import codes.seanhenry.model.MockClass;
+import codes.seanhenry.model.MockRenderer;
+import codes.seanhenry.util.SwiftCodeFormatter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MockRendererBenchmark {
+
+  @Param({"10", "200", "2000", "10000"})
+  public int memberCount;
+
+  private MockClass mock;
+  private SwiftCodeFormatter formatter;
+
+  @Setup
+  public void setUp() {
+    mock = SyntheticProtocols.createMock(memberCount);
+    formatter = SwiftCodeFormatter.create(false, 4, false, false);
+  }
+
+  @Benchmark
+  public List<String> render() {
+    return new MockRenderer().render(mock);
+  }
+
+  @Benchmark
+  public String renderAndFormat() {
+    StringBuilder builder = new StringBuilder();
+    for (String member : new MockRenderer().render(mock)) {
+      builder.append(formatter.format(member, "    ")).append('\n');
+    }
+    return builder.toString();
+  }
+}
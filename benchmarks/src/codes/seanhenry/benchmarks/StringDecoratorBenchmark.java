@@ -0,0 +1,83 @@
+package codes.seanhenry.benchmarks;
+
+import codes.seanhenry.model.NamingConvention;
+import codes.seanhenry.util.AppendStringDecorator;
+import codes.seanhenry.util.NameTemplate;
+import codes.seanhenry.util.PrependStringDecorator;
+import codes.seanhenry.util.StringDecorator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringDecoratorBenchmark {
+
+  private StringDecorator prepend;
+  private StringDecorator prependAppend;
+  private StringDecorator closureResult;
+  private NameTemplate prependAppendTemplate;
+  private NameTemplate closureResultTemplate;
+  private NamingConvention namingConvention;
+
+  @Param({"name", "performSomeLongRunningTaskWithCompletion"})
+  public String methodName;
+
+  @Setup
+  public void setUp() {
+    prepend = new PrependStringDecorator(null, "invoked");
+    prependAppend = new AppendStringDecorator(new PrependStringDecorator(null, "stubbed"), "Result");
+    closureResult = new AppendStringDecorator(new PrependStringDecorator(null, "stubbed"), "Result");
+    prependAppendTemplate = NameTemplate.compile(NamingConvention.DEFAULT_STUBBED_RESULT, "name");
+    closureResultTemplate = NameTemplate.compile(NamingConvention.DEFAULT_STUBBED_CLOSURE_RESULT, "method", "param");
+    namingConvention = new NamingConvention(
+      NamingConvention.DEFAULT_INVOKED_PROPERTY,
+      NamingConvention.DEFAULT_STUBBED_PROPERTY,
+      NamingConvention.DEFAULT_INVOKED_METHOD,
+      NamingConvention.DEFAULT_INVOCATION_COUNT,
+      NamingConvention.DEFAULT_INVOKED_PARAMETERS,
+      NamingConvention.DEFAULT_STUBBED_RESULT,
+      NamingConvention.DEFAULT_STUBBED_CLOSURE_RESULT
+    );
+  }
+
+  @Benchmark
+  public String prepend() {
+    return prepend.process(methodName);
+  }
+
+  @Benchmark
+  public String prependThenAppend() {
+    return prependAppend.process(methodName);
+  }
+
+  /**
+   * Closure result names build a new decorator for every closure parameter.
+   */
+  @Benchmark
+  public String closureResultName() {
+    return new PrependStringDecorator(closureResult, methodName).process("completion");
+  }
+
+  @Benchmark
+  public String compiledTemplate() {
+    return prependAppendTemplate.format(methodName);
+  }
+
+  @Benchmark
+  public String compiledClosureResultTemplate() {
+    return closureResultTemplate.format(methodName, "completion");
+  }
+
+  /**
+   * Names are formatted once per session and then looked up.
+   */
+  @Benchmark
+  public String cachedClosureResultName() {
+    return namingConvention.getStubbedClosureResultName(methodName, "completion");
+  }
+}
@@ -0,0 +1,83 @@
+package codes.seanhenry.benchmarks;
+
+import codes.seanhenry.model.*;
+import codes.seanhenry.util.MethodSignature;
+import codes.seanhenry.util.UniqueMethodNameGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds large protocols that look like the ones found in real projects.
+ */
+class SyntheticProtocols {
+
+  private static final String[] TYPES = {"Int", "String", "Bool", "[String]", "[String: Int]", "Data?"};
+  private static final String[] LABELS = {"with", "for", "at", "from", "to", "_"};
+
+  private SyntheticProtocols() {
+  }
+
+  /**
+   * @return methods sharing one name, differing by labels and types so every naming rule is exercised.
+   */
+  static List<UniqueMethodNameGenerator.MethodModel<String>> createOverloads(int count) {
+    List<UniqueMethodNameGenerator.MethodModel<String>> models = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      MethodSignature signature = MethodSignature.parse("perform", createParameterTexts(i));
+      models.add(new UniqueMethodNameGenerator.MethodModel<>(signature.toString() + "#" + i, signature));
+    }
+    return models;
+  }
+
+  private static String[] createParameterTexts(int seed) {
+    int count = 1 + seed % 4;
+    String[] parameters = new String[count];
+    int value = seed;
+    for (int i = 0; i < count; i++) {
+      String label = LABELS[value % LABELS.length];
+      String type = TYPES[(value / LABELS.length) % TYPES.length];
+      parameters[i] = label + " value" + i + ": " + type;
+      value = value / (LABELS.length * TYPES.length) + 7 * (i + 1);
+    }
+    return parameters;
+  }
+
+  /**
+   * @return a mock with a mix of properties, plain methods, overloads and closures.
+   */
+  static MockClass createMock(int memberCount) {
+    List<Property> properties = new ArrayList<>();
+    List<Method> methods = new ArrayList<>();
+    for (int i = 0; i < memberCount; i++) {
+      String type = TYPES[i % TYPES.length];
+      switch (i % 5) {
+        case 0:
+          properties.add(new Property("property" + i, "", type, type.replace("?", ""), type.endsWith("?"), i % 2 == 0));
+          break;
+        case 1:
+          methods.add(new Method("method" + i, Collections.emptyList()));
+          break;
+        case 2:
+          methods.add(new Method("overload", Collections.singletonList(createParameter("value" + i, type)), type, type, type.endsWith("?"), false));
+          break;
+        case 3:
+          Closure closure = new Closure(Arrays.asList("Bool", type), false);
+          Parameter completion = new Parameter("completion: (Bool, " + type + ") -> ()", "completion", "completion", "@escaping",
+                                               "(Bool, " + type + ") -> ()", "(Bool, " + type + ") -> ()", false, closure);
+          methods.add(new Method("load" + i, Arrays.asList(createParameter("id", "Int"), completion)));
+          break;
+        default:
+          methods.add(new Method("fetch" + i, Arrays.asList(createParameter("from", "Int"), createParameter("to", "Int")),
+                                 "[String]", "[String]", false, false));
+      }
+    }
+    return new MockClass("", Collections.emptyList(), properties, methods);
+  }
+
+  private static Parameter createParameter(String name, String type) {
+    return new Parameter(name + ": " + type, name, name, "", type, type.replace("?", ""), type.endsWith("?"), null);
+  }
+}
@@ -0,0 +1,50 @@
+package codes.seanhenry.benchmarks;
+
+import codes.seanhenry.util.MethodSignature;
+import codes.seanhenry.util.UniqueMethodNameGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UniqueMethodNameGeneratorBenchmark {
+
+  @Param({"10", "100", "1000", "10000"})
+  public int methodCount;
+
+  private List<UniqueMethodNameGenerator.MethodModel<String>> overloads;
+  private List<UniqueMethodNameGenerator.MethodModel<MethodSignature>> distinctMethods;
+
+  @Setup
+  public void setUp() {
+    overloads = SyntheticProtocols.createOverloads(methodCount);
+    distinctMethods = new ArrayList<>(methodCount);
+    for (int i = 0; i < methodCount; i++) {
+      MethodSignature signature = MethodSignature.parse("method" + i, "value: Int");
+      distinctMethods.add(new UniqueMethodNameGenerator.MethodModel<>(signature, signature));
+    }
+  }
+
+  @Benchmark
+  public Map<String, String> generateOverloads() {
+    return new UniqueMethodNameGenerator<>(overloads).generateAll();
+  }
+
+  @Benchmark
+  public Map<MethodSignature, String> generateDistinctMethods() {
+    return new UniqueMethodNameGenerator<>(distinctMethods).generateAll();
+  }
+
+  @Benchmark
+  public String generateSingleOverload() {
+    return new UniqueMethodNameGenerator<>(overloads).generate(overloads.get(overloads.size() / 2).getID());
+  }
+}
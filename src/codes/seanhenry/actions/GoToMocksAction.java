@@ -0,0 +1,82 @@
+package codes.seanhenry.actions;
+
+import codes.seanhenry.index.ConformanceIndex;
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.codeInsight.navigation.NavigationUtil;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Ref;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+import com.jetbrains.swift.psi.SwiftProtocolDeclaration;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Navigates from the protocol at the caret to the mocks which conform to it, directly or through inheritance.
+ * Mocks are found in the {@link ConformanceIndex} under a modal progress so a deep hierarchy does not freeze the editor.
+ */
+public class GoToMocksAction extends AnAction implements DumbAware {
+
+  @Override
+  public void update(AnActionEvent e) {
+    e.getPresentation().setEnabledAndVisible(findProtocol(e) != null);
+  }
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    Project project = e.getProject();
+    Editor editor = e.getData(CommonDataKeys.EDITOR);
+    SwiftProtocolDeclaration protocol = findProtocol(e);
+    if (project == null || editor == null || protocol == null) {
+      return;
+    }
+    if (DumbService.isDumb(project)) {
+      DumbService.getInstance(project).showDumbModeNotification("Go to Mocks is not available while indexing");
+      return;
+    }
+    Set<String> protocols = Collections.singleton(protocol.getName());
+    Ref<List<SwiftClassDeclaration>> result = Ref.create(Collections.emptyList());
+    boolean isFinished = ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> result.set(
+      DumbService.getInstance(project).runReadActionInSmartMode(
+        (Computable<List<SwiftClassDeclaration>>) () -> ConformanceIndex.findMocks(project, protocols))
+    ), "Finding Mocks", true, project);
+    if (!isFinished) {
+      return;
+    }
+    List<SwiftClassDeclaration> mocks = result.get();
+    if (mocks.isEmpty()) {
+      HintManager.getInstance().showInformationHint(editor, "No mocks conform to '" + protocol.getName() + "'");
+    } else if (mocks.size() == 1) {
+      mocks.get(0).navigate(true);
+    } else {
+      PsiElement[] elements = mocks.toArray(new PsiElement[mocks.size()]);
+      NavigationUtil.getPsiElementPopup(elements, "Mocks of " + protocol.getName()).showInBestPositionFor(editor);
+    }
+  }
+
+  /**
+   * @return the named protocol around the caret or null.
+   */
+  static SwiftProtocolDeclaration findProtocol(AnActionEvent e) {
+    Editor editor = e.getData(CommonDataKeys.EDITOR);
+    PsiFile file = e.getData(CommonDataKeys.PSI_FILE);
+    if (editor == null || file == null) {
+      return null;
+    }
+    PsiElement element = file.findElementAt(editor.getCaretModel().getOffset());
+    SwiftProtocolDeclaration protocol = PsiTreeUtil.getParentOfType(element, SwiftProtocolDeclaration.class, false);
+    return protocol == null || protocol.getName() == null ? null : protocol;
+  }
+}
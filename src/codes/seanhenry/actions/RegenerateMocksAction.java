@@ -0,0 +1,57 @@
+package codes.seanhenry.actions;
+
+import codes.seanhenry.generator.MockBatchRegenerator;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public class RegenerateMocksAction extends AnAction {
+
+  static final String NOTIFICATION_GROUP = "Mock Generator";
+
+  @Override
+  public void update(AnActionEvent e) {
+    e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+  }
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    Project project = e.getProject();
+    if (project == null) {
+      return;
+    }
+    VirtualFile[] roots = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+    if (roots == null || roots.length == 0) {
+      roots = new VirtualFile[]{project.getBaseDir()};
+    }
+    VirtualFile[] selectedRoots = roots;
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, "Regenerating mocks", true) {
+
+      private MockBatchRegenerator.Result result;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setText("Finding mocks");
+        List<VirtualFile> files = MockBatchRegenerator.findSwiftFiles(project, selectedRoots);
+        result = new MockBatchRegenerator(project).regenerate(files, indicator);
+      }
+
+      @Override
+      public void onSuccess() {
+        NotificationType type = result.getErrorCount() == 0 ? NotificationType.INFORMATION : NotificationType.WARNING;
+        Notifications.Bus.notify(new Notification(NOTIFICATION_GROUP, "Mocks regenerated", result.toString(), type), project);
+      }
+    });
+  }
+}
@@ -0,0 +1,61 @@
+package codes.seanhenry.actions;
+
+import codes.seanhenry.generator.MockBatchRegenerator;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.jetbrains.swift.psi.SwiftProtocolDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Regenerates only the mocks which conform to the protocol at the caret, directly or through inheritance.
+ * The mocks are found once indexing has finished, so the action can be started while the project is indexed.
+ */
+public class RegenerateProtocolMocksAction extends AnAction implements DumbAware {
+
+  @Override
+  public void update(AnActionEvent e) {
+    e.getPresentation().setEnabledAndVisible(GoToMocksAction.findProtocol(e) != null);
+  }
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    Project project = e.getProject();
+    SwiftProtocolDeclaration protocol = GoToMocksAction.findProtocol(e);
+    if (project == null || protocol == null) {
+      return;
+    }
+    List<String> protocols = Collections.singletonList(protocol.getName());
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, "Regenerating mocks", true) {
+
+      private MockBatchRegenerator.Result result;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setText("Finding mocks");
+        List<VirtualFile> files = DumbService.getInstance(project).runReadActionInSmartMode(
+          (Computable<List<VirtualFile>>) () -> MockBatchRegenerator.findMockFiles(project, protocols));
+        result = new MockBatchRegenerator(project).regenerate(files, indicator);
+      }
+
+      @Override
+      public void onSuccess() {
+        NotificationType type = result.getErrorCount() == 0 ? NotificationType.INFORMATION : NotificationType.WARNING;
+        Notifications.Bus.notify(new Notification(RegenerateMocksAction.NOTIFICATION_GROUP, "Mocks regenerated", result.toString(), type), project);
+      }
+    });
+  }
+}
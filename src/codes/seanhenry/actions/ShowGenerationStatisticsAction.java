@@ -0,0 +1,42 @@
+package codes.seanhenry.actions;
+
+import codes.seanhenry.generator.MockClassUpdater;
+import codes.seanhenry.generator.ProtocolMembersCache;
+import codes.seanhenry.generator.ProtocolModelCache;
+import codes.seanhenry.util.GenerationStatistics;
+import codes.seanhenry.util.TypeResolutionCache;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+
+/**
+ * Shows the time spent in each phase of mock generation this session and writes it to the log
+ * so it can be attached to bug reports.
+ */
+public class ShowGenerationStatisticsAction extends AnAction {
+
+  private static final Logger LOG = Logger.getInstance(ShowGenerationStatisticsAction.class);
+  private static final String TITLE = "Mock Generation Statistics";
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    GenerationStatistics statistics = GenerationStatistics.getInstance();
+    String report = statistics.getReport()
+                    + ProtocolMembersCache.getStatistics() + "\n"
+                    + ProtocolModelCache.getStatistics() + "\n"
+                    + TypeResolutionCache.getStatistics() + "\n"
+                    + MockClassUpdater.getStatistics();
+    LOG.info(TITLE + "\n" + report);
+    String message = "<html><pre>" + StringUtil.escapeXml(report) + "</pre></html>";
+    int answer = Messages.showDialog(e.getProject(), message, TITLE, new String[]{"Close", "Reset"}, 0, Messages.getInformationIcon());
+    if (answer == 1) {
+      statistics.reset();
+      ProtocolMembersCache.resetStatistics();
+      ProtocolModelCache.resetStatistics();
+      TypeResolutionCache.resetStatistics();
+      MockClassUpdater.resetStatistics();
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package codes.seanhenry.generator;
+
+/**
+ * How a {@link MockClassUpdater} writes generated members into a mock class.
+ */
+public enum EmissionMode {
+  /**
+   * Only the members that differ are parsed and changed, unchanged members keep their PSI.
+   */
+  INCREMENTAL,
+  /**
+   * The whole class body is rendered as text and replaced in a single document change.
+   */
+  BULK,
+  /**
+   * Bulk when the mock is empty or most of its members change, incremental otherwise.
+   */
+  AUTOMATIC
+}
@@ -0,0 +1,182 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.model.MockClass;
+import codes.seanhenry.model.ProtocolMemberMerger;
+import codes.seanhenry.model.ProtocolModel;
+import codes.seanhenry.util.GenerationStatistics;
+import codes.seanhenry.util.GenerationStatistics.Phase;
+import com.intellij.psi.PsiElement;
+import com.jetbrains.swift.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The read-only half of mock generation: resolves the protocols a mock class conforms to and gathers their members
+ * into a {@link MockClass} model.
+ * Can be computed in a read action on any thread and later handed to a {@link MockGenerator}.
+ */
+public class MockAnalysis {
+
+  private static final String NS_OBJECT_PROTOCOL = "NSObjectProtocol";
+  private final SwiftClassDeclaration classDeclaration;
+  private final List<String> warnings = new ArrayList<>();
+  private String errorMessage;
+  private List<SwiftProtocolDeclaration> protocols = Collections.emptyList();
+  private MockClass model;
+
+  private MockAnalysis(SwiftClassDeclaration classDeclaration) {
+    this.classDeclaration = classDeclaration;
+  }
+
+  public static MockAnalysis analyse(@NotNull SwiftClassDeclaration classDeclaration) {
+    return analyse(classDeclaration, ProtocolMembersCache::getMembers);
+  }
+
+  public static MockAnalysis analyse(@NotNull SwiftClassDeclaration classDeclaration,
+                                     @NotNull Function<SwiftProtocolDeclaration, ProtocolMembers> membersProvider) {
+    MockAnalysis analysis = new MockAnalysis(classDeclaration);
+    analysis.analyse(membersProvider);
+    return analysis;
+  }
+
+  private void analyse(Function<SwiftProtocolDeclaration, ProtocolMembers> membersProvider) {
+    SwiftTypeInheritanceClause inheritanceClause = classDeclaration.getTypeInheritanceClause();
+    if (inheritanceClause == null) {
+      errorMessage = "Mock class does not inherit from anything.";
+      return;
+    }
+    GenerationStatistics statistics = GenerationStatistics.getInstance();
+    ProtocolModelCache modelCache = ProtocolModelCache.getInstance();
+    Map<SwiftProtocolDeclaration, List<ProtocolModel>> cachedModels = new HashMap<>();
+    // the protocols a cached protocol inherits from are cached with it so they are not resolved
+    ProtocolInheritanceResolver resolver = new ProtocolInheritanceResolver(p -> {
+      List<ProtocolModel> cached = modelCache.get(p);
+      if (cached != null) {
+        cachedModels.put(p, cached);
+      }
+      return cached == null;
+    });
+    List<SwiftProtocolDeclaration> resolved = statistics.measure(Phase.RESOLVE_PROTOCOLS, () -> resolver.resolve(classDeclaration));
+    warnings.addAll(resolver.getWarnings());
+    if (resolved.isEmpty()) {
+      errorMessage = "Could not find a protocol reference.";
+      return;
+    }
+    protocols = removeNSObjectProtocol(resolved);
+    List<ProtocolModel> models = statistics.measure(Phase.GATHER_MEMBERS, () -> gatherModels(modelCache, resolver, cachedModels, membersProvider));
+    model = statistics.measure(Phase.BUILD_MODEL, () -> {
+      ProtocolMemberMerger members = new ProtocolMemberMerger();
+      models.forEach(members::add);
+      warnings.addAll(members.getConflicts());
+      return MockModelFactory.create(classDeclaration, members);
+    });
+  }
+
+  /**
+   * SDK and library protocols are read from the cache with the protocols they inherit from, or read from the PSI and cached.
+   * Either way a cacheable protocol is followed by the protocols it inherits from in the order of a walk starting at it,
+   * so the models are in the same order whether or not the cache is warm.
+   * Protocols reached by more than one path are only included once. Models are told apart by the declaration they were made from,
+   * never by name, so protocols which share a name are both mocked and their conflicts are reported by {@link ProtocolMemberMerger}.
+   * A library protocol read both from the cache and from the PSI yields two identical models which are merged the same way.
+   */
+  private List<ProtocolModel> gatherModels(ProtocolModelCache modelCache,
+                                           ProtocolInheritanceResolver resolver,
+                                           Map<SwiftProtocolDeclaration, List<ProtocolModel>> cachedModels,
+                                           Function<SwiftProtocolDeclaration, ProtocolMembers> membersProvider) {
+    Map<SwiftProtocolDeclaration, ProtocolModel> created = new HashMap<>();
+    Function<SwiftProtocolDeclaration, ProtocolModel> createModel =
+      p -> created.computeIfAbsent(p, k -> MockModelFactory.createProtocolModel(membersProvider.apply(k)));
+    // models made from the PSI are shared through created so each declaration is included once
+    Set<ProtocolModel> included = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<ProtocolModel> models = new ArrayList<>();
+    for (SwiftProtocolDeclaration protocol : protocols) {
+      List<ProtocolModel> cached = cachedModels.get(protocol);
+      if (cached == null) {
+        ProtocolModel model = createModel.apply(protocol);
+        if (modelCache.isCacheable(protocol)) {
+          cached = createInheritedModels(model, resolver.getInheritedProtocols(protocol), cachedModels, createModel);
+          modelCache.put(protocol, cached);
+        } else {
+          cached = Collections.singletonList(model);
+        }
+      }
+      for (ProtocolModel model : cached) {
+        if (!NS_OBJECT_PROTOCOL.equals(model.getName()) && included.add(model)) {
+          models.add(model);
+        }
+      }
+    }
+    return models;
+  }
+
+  /**
+   * The inherited protocols come from the walk which resolved the mock's protocols, so they are not resolved again.
+   * A cached inherited protocol was not walked, so the protocols it inherits from are read from its cached models.
+   * @return the model of the protocol followed by the models of the protocols it inherits from.
+   */
+  private static List<ProtocolModel> createInheritedModels(ProtocolModel model,
+                                                           List<SwiftProtocolDeclaration> inheritedProtocols,
+                                                           Map<SwiftProtocolDeclaration, List<ProtocolModel>> cachedModels,
+                                                           Function<SwiftProtocolDeclaration, ProtocolModel> createModel) {
+    Set<ProtocolModel> included = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<ProtocolModel> models = new ArrayList<>();
+    models.add(model);
+    included.add(model);
+    for (SwiftProtocolDeclaration inherited : inheritedProtocols) {
+      List<ProtocolModel> cached = cachedModels.get(inherited);
+      for (ProtocolModel inheritedModel : cached == null ? Collections.singletonList(createModel.apply(inherited)) : cached) {
+        if (included.add(inheritedModel)) {
+          models.add(inheritedModel);
+        }
+      }
+    }
+    return models;
+  }
+
+  private List<SwiftProtocolDeclaration> removeNSObjectProtocol(List<SwiftProtocolDeclaration> protocols) {
+    return protocols.stream().filter(p -> !NS_OBJECT_PROTOCOL.equals(p.getName())).collect(Collectors.toList());
+  }
+
+  /**
+   * @return false when any of the analysed PSI has been invalidated since the analysis was made.
+   */
+  public boolean isValid() {
+    return classDeclaration.isValid() && protocols.stream().allMatch(PsiElement::isValid);
+  }
+
+  public SwiftClassDeclaration getClassDeclaration() {
+    return classDeclaration;
+  }
+
+  /**
+   * @return a message describing why the mock cannot be generated, or null when it can.
+   */
+  @Nullable
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /**
+   * @return non fatal problems found while resolving the mock's protocols.
+   */
+  public List<String> getWarnings() {
+    return warnings;
+  }
+
+  /**
+   * @return the model of the mock, or null when it cannot be generated.
+   */
+  @Nullable
+  public MockClass getModel() {
+    return model;
+  }
+
+  public List<SwiftProtocolDeclaration> getProtocols() {
+    return protocols;
+  }
+}
@@ -0,0 +1,165 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.index.ConformanceIndex;
+import codes.seanhenry.settings.MockGeneratorSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Alarm;
+import com.jetbrains.swift.psi.SwiftProtocolDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Regenerates mocks when the protocols they conform to change, when enabled in the project settings.
+ * Changed protocols are collected while the user edits and a burst of edits is coalesced into one batch
+ * which starts once no protocol has changed for {@link #DEBOUNCE_MILLIS}.
+ * Listening only finds the protocol around each change, the mocks are found in the {@link ConformanceIndex} and regenerated in a background task
+ * whose read actions give way to typing. Only one batch runs at a time and each mock is regenerated once per batch.
+ * Regenerating a mock changes only the mock class so it does not start another batch.
+ * Regenerated mocks are not saved. Each mock file is regenerated in its own command which can be undone in the mock's editor,
+ * so undo after typing in a protocol still undoes the typing.
+ */
+public class MockAutoRegenerator extends AbstractProjectComponent {
+
+  private static final Logger LOG = Logger.getInstance(MockAutoRegenerator.class);
+  static final int DEBOUNCE_MILLIS = 1500;
+
+  private final Set<String> changedProtocols = new LinkedHashSet<>();
+  private Disposable disposable;
+  private Alarm alarm;
+  // only used on the event dispatch thread
+  private boolean isRegenerating;
+
+  public MockAutoRegenerator(Project project) {
+    super(project);
+  }
+
+  @Override
+  public void projectOpened() {
+    disposable = Disposer.newDisposable();
+    alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, disposable);
+    PsiManager.getInstance(myProject).addPsiTreeChangeListener(new ProtocolChangeListener(), disposable);
+  }
+
+  @Override
+  public void projectClosed() {
+    if (disposable != null) {
+      Disposer.dispose(disposable);
+      disposable = null;
+    }
+  }
+
+  private class ProtocolChangeListener extends PsiTreeChangeAdapter {
+
+    @Override
+    public void childAdded(@NotNull PsiTreeChangeEvent event) {
+      protocolChanged(event);
+    }
+
+    @Override
+    public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+      protocolChanged(event);
+    }
+
+    @Override
+    public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+      protocolChanged(event);
+    }
+
+    @Override
+    public void childMoved(@NotNull PsiTreeChangeEvent event) {
+      protocolChanged(event);
+    }
+
+    @Override
+    public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+      protocolChanged(event);
+    }
+  }
+
+  /**
+   * Called on the event dispatch thread for every PSI change so it must stay cheap.
+   */
+  private void protocolChanged(PsiTreeChangeEvent event) {
+    if (!MockGeneratorSettings.getInstance(myProject).isAutoRegenerate()) {
+      return;
+    }
+    PsiElement parent = event.getParent();
+    if (parent == null || !(event.getFile() == null || event.getFile().getName().endsWith(".swift"))) {
+      return;
+    }
+    SwiftProtocolDeclaration protocol = PsiTreeUtil.getParentOfType(parent, SwiftProtocolDeclaration.class, false);
+    if (protocol == null || protocol.getName() == null) {
+      return;
+    }
+    changedProtocols.add(protocol.getName());
+    alarm.cancelAllRequests();
+    alarm.addRequest(this::regenerateChangedMocks, DEBOUNCE_MILLIS);
+  }
+
+  private void regenerateChangedMocks() {
+    if (myProject.isDisposed() || changedProtocols.isEmpty()) {
+      return;
+    }
+    if (isRegenerating) {
+      // the batch in progress may have missed these changes, so wait for it to finish
+      alarm.addRequest(this::regenerateChangedMocks, DEBOUNCE_MILLIS);
+      return;
+    }
+    Set<String> protocols = new HashSet<>(changedProtocols);
+    changedProtocols.clear();
+    isRegenerating = true;
+    ProgressManager.getInstance().run(new Task.Backgroundable(myProject, "Regenerating mocks", true) {
+
+      private List<VirtualFile> files = Collections.emptyList();
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setText("Finding mocks");
+        while (!findMockFilesWhenSmart()) {
+          indicator.checkCanceled();
+          ApplicationManager.getApplication().invokeAndWait(() -> {}, ModalityState.any());
+        }
+        if (!files.isEmpty()) {
+          MockBatchRegenerator regenerator = new MockBatchRegenerator(myProject);
+          regenerator.setAutomatic(true);
+          MockBatchRegenerator.Result result = regenerator.regenerate(files, indicator);
+          LOG.info("Regenerated mocks of " + protocols + ". " + result);
+        }
+      }
+
+      @Override
+      public void onFinished() {
+        // called even when the task is cancelled before it runs
+        isRegenerating = false;
+      }
+
+      /**
+       * @return false when a write action or indexing interrupted the search.
+       */
+      private boolean findMockFilesWhenSmart() {
+        DumbService.getInstance(myProject).waitForSmartMode();
+        try {
+          return ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(() -> files = MockBatchRegenerator.findMockFiles(myProject, protocols));
+        } catch (IndexNotReadyException e) {
+          return false;
+        }
+      }
+    });
+  }
+}
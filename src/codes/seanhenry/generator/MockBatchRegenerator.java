@@ -0,0 +1,480 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.index.ConformanceIndex;
+import codes.seanhenry.util.GenerationStatistics;
+import codes.seanhenry.util.TypeResolutionCache;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Regenerates every mock class found in a set of files.
+ * Files are processed in chunks. Each chunk is analysed concurrently in read actions and then applied in a single write command,
+ * after which the chunk's documents are committed and saved so they can be released.
+ * Protocol members are gathered once no matter how many mocks conform to the protocol, see {@link ProtocolMembersCache}.
+ * In check only mode mocks are generated into copies of their files and compared with the originals, nothing is written.
+ * In automatic mode, while the user may be typing, analysis read actions give way to write actions and are started again,
+ * and each file is applied in its own command so the event dispatch thread is never held for a whole chunk.
+ */
+public class MockBatchRegenerator {
+
+  private static final Logger LOG = Logger.getInstance(MockBatchRegenerator.class);
+  private static final String COMMAND_NAME = "Regenerate mocks";
+  private static final int CHUNK_SIZE = 50;
+
+  private final Project project;
+  private boolean checkOnly;
+  private int parallelism;
+  private boolean automatic;
+  private ExecutorService executor;
+
+  public MockBatchRegenerator(@NotNull Project project) {
+    this.project = project;
+  }
+
+  /**
+   * @param checkOnly when true mocks are compared with their regenerated form instead of being rewritten.
+   */
+  public void setCheckOnly(boolean checkOnly) {
+    this.checkOnly = checkOnly;
+  }
+
+  /**
+   * @param parallelism the number of worker threads used for analysis. 0 uses the application's shared pool.
+   */
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @param automatic when true documents are left unsaved, analysis gives way to write actions and files are applied one at a time,
+   *                  so regenerating while the user types neither saves their work nor blocks their typing.
+   */
+  public void setAutomatic(boolean automatic) {
+    this.automatic = automatic;
+  }
+
+  /**
+   * Must not be called inside a read or write action.
+   */
+  public Result regenerate(@NotNull List<VirtualFile> files, @NotNull ProgressIndicator indicator) {
+    Result result = new Result();
+    long start = System.nanoTime();
+    indicator.setIndeterminate(false);
+    if (0 < parallelism) {
+      executor = Executors.newFixedThreadPool(parallelism);
+    }
+    try {
+      for (int i = 0; i < files.size(); i += CHUNK_SIZE) {
+        indicator.checkCanceled();
+        List<VirtualFile> chunk = files.subList(i, Math.min(i + CHUNK_SIZE, files.size()));
+        List<FileAnalysis> analyses = analyseChunk(chunk, indicator);
+        indicator.setText(checkOnly ? "Checking mocks" : "Applying mocks");
+        applyChunk(analyses, result);
+        indicator.setFraction((double) (i + chunk.size()) / files.size());
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+        executor = null;
+      }
+    }
+    result.totalNanos = System.nanoTime() - start;
+    LOG.info(result.toString());
+    ProtocolModelCache.getInstance().save();
+    LOG.info(ProtocolMembersCache.getStatistics());
+    LOG.info(ProtocolModelCache.getStatistics());
+    LOG.info(TypeResolutionCache.getStatistics());
+    LOG.info(MockClassUpdater.getStatistics());
+    LOG.info("Mock generation statistics\n" + GenerationStatistics.getInstance().getReport());
+    return result;
+  }
+
+  private List<FileAnalysis> analyseChunk(List<VirtualFile> chunk, ProgressIndicator indicator) {
+    indicator.setText("Analysing mocks");
+    ConcurrentMap<VirtualFile, FileAnalysis> analyses = new ConcurrentHashMap<>();
+    invokeConcurrently(chunk, indicator, file -> {
+      FileAnalysis analysis = analyseFileInReadAction(file);
+      if (analysis != null) {
+        analyses.put(file, analysis);
+      }
+    });
+    List<FileAnalysis> ordered = new ArrayList<>();
+    for (VirtualFile file : chunk) {
+      FileAnalysis analysis = analyses.get(file);
+      if (analysis != null) {
+        ordered.add(analysis);
+      }
+    }
+    return ordered;
+  }
+
+  private void invokeConcurrently(List<VirtualFile> files, ProgressIndicator indicator, Consumer<VirtualFile> processor) {
+    if (executor == null) {
+      boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, true, file -> {
+        processor.accept(file);
+        return true;
+      });
+      if (!completed) {
+        throw new ProcessCanceledException();
+      }
+      return;
+    }
+    List<Future<?>> futures = new ArrayList<>();
+    for (VirtualFile file : files) {
+      futures.add(executor.submit(() -> ProgressManager.getInstance().executeProcessUnderProgress(() -> processor.accept(file), indicator)));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        throw new ProcessCanceledException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RuntimeException(e.getCause());
+      }
+    }
+  }
+
+  private FileAnalysis analyseFileInReadAction(VirtualFile file) {
+    if (!automatic) {
+      return ApplicationManager.getApplication().runReadAction((Computable<FileAnalysis>) () -> analyseFile(file));
+    }
+    Ref<FileAnalysis> analysis = Ref.create();
+    // a write action cancels the read action, so wait for it to finish and start again
+    while (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(() -> analysis.set(analyseFile(file)))) {
+      ProgressManager.checkCanceled();
+      ApplicationManager.getApplication().invokeAndWait(() -> {}, ModalityState.any());
+    }
+    return analysis.get();
+  }
+
+  private FileAnalysis analyseFile(VirtualFile file) {
+    if (!file.isValid()) {
+      return null;
+    }
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+    if (psiFile == null) {
+      return null;
+    }
+    long start = System.nanoTime();
+    List<MockAnalysis> mocks = new ArrayList<>();
+    for (SwiftClassDeclaration classDeclaration : findMockClasses(psiFile)) {
+      mocks.add(MockAnalysis.analyse(classDeclaration));
+    }
+    if (mocks.isEmpty()) {
+      return null;
+    }
+    return new FileAnalysis(file, psiFile, mocks, System.nanoTime() - start);
+  }
+
+  private void applyChunk(List<FileAnalysis> analyses, Result result) {
+    if (checkOnly) {
+      ApplicationManager.getApplication().invokeAndWait(() -> ApplicationManager.getApplication().runWriteAction(() -> {
+        for (FileAnalysis analysis : analyses) {
+          result.add(check(analysis));
+        }
+      }), ModalityState.defaultModalityState());
+      return;
+    }
+    if (automatic) {
+      for (FileAnalysis analysis : analyses) {
+        ApplicationManager.getApplication().invokeAndWait(() -> applyFiles(Collections.singletonList(analysis), result),
+                                                          ModalityState.defaultModalityState());
+      }
+      return;
+    }
+    ApplicationManager.getApplication().invokeAndWait(() -> applyFiles(analyses, result), ModalityState.defaultModalityState());
+  }
+
+  /**
+   * Applies the files in one undoable command and then commits their documents, and saves them unless automatic.
+   */
+  private void applyFiles(List<FileAnalysis> analyses, Result result) {
+    List<Document> documents = getDocuments(analyses);
+    WriteCommandAction.runWriteCommandAction(project, COMMAND_NAME, COMMAND_NAME, () -> {
+      for (FileAnalysis analysis : analyses) {
+        result.add(apply(analysis));
+      }
+    });
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(project);
+    documents.forEach(documentManager::commitDocument);
+    if (!automatic) {
+      // only the chunk's own documents are saved so unrelated unsaved edits are left alone
+      documents.forEach(FileDocumentManager.getInstance()::saveDocument);
+    }
+  }
+
+  private List<Document> getDocuments(List<FileAnalysis> analyses) {
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(project);
+    List<Document> documents = new ArrayList<>();
+    for (FileAnalysis analysis : analyses) {
+      Document document = analysis.psiFile.isValid() ? documentManager.getDocument(analysis.psiFile) : null;
+      if (document != null) {
+        documents.add(document);
+      }
+    }
+    return documents;
+  }
+
+  private FileReport apply(FileAnalysis analysis) {
+    FileReport report = new FileReport(analysis.file.getPath(), analysis.analyseNanos);
+    long start = System.nanoTime();
+    // a bulk update reparses the file, so later mocks in it are found again through pointers
+    SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+    List<SmartPsiElementPointer<SwiftClassDeclaration>> pointers = analysis.mocks
+      .stream()
+      .map(m -> pointerManager.createSmartPsiElementPointer(m.getClassDeclaration()))
+      .collect(Collectors.toList());
+    for (int i = 0; i < analysis.mocks.size(); i++) {
+      MockAnalysis mock = analysis.mocks.get(i);
+      if (!mock.isValid()) {
+        SwiftClassDeclaration classDeclaration = pointers.get(i).getElement();
+        if (classDeclaration == null) {
+          report.errors.add("Mock class was invalidated before it could be regenerated.");
+          continue;
+        }
+        mock = MockAnalysis.analyse(classDeclaration);
+      }
+      if (mock.getErrorMessage() != null) {
+        report.errors.add(mock.getClassDeclaration().getName() + ": " + mock.getErrorMessage());
+        continue;
+      }
+      new MockGenerator(mock).generate();
+      report.mocks++;
+    }
+    report.applyNanos = System.nanoTime() - start;
+    LOG.info(report.toString());
+    return report;
+  }
+
+  private FileReport check(FileAnalysis analysis) {
+    FileReport report = new FileReport(analysis.file.getPath(), analysis.analyseNanos);
+    long start = System.nanoTime();
+    if (!analysis.psiFile.isValid()) {
+      report.errors.add("File was invalidated before it could be checked.");
+      return report;
+    }
+    SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+    List<SmartPsiElementPointer<SwiftClassDeclaration>> pointers = analysis.mocks
+      .stream()
+      .map(m -> pointerManager.createSmartPsiElementPointer(m.getClassDeclaration()))
+      .collect(Collectors.toList());
+    PsiFile copy = (PsiFile) analysis.psiFile.copy();
+    List<SwiftClassDeclaration> targets = findMockClasses(copy);
+    for (int i = 0; i < analysis.mocks.size() && i < targets.size(); i++) {
+      MockAnalysis mock = analysis.mocks.get(i);
+      if (!mock.isValid()) {
+        SwiftClassDeclaration classDeclaration = pointers.get(i).getElement();
+        if (classDeclaration == null) {
+          report.errors.add("Mock class was invalidated before it could be checked.");
+          continue;
+        }
+        mock = MockAnalysis.analyse(classDeclaration);
+      }
+      if (mock.getErrorMessage() != null) {
+        report.errors.add(mock.getClassDeclaration().getName() + ": " + mock.getErrorMessage());
+        continue;
+      }
+      new MockGenerator(mock, targets.get(i)).generate();
+      report.mocks++;
+    }
+    report.outOfDate = !copy.getText().equals(analysis.psiFile.getText());
+    report.applyNanos = System.nanoTime() - start;
+    LOG.info(report.toString());
+    return report;
+  }
+
+  public static List<SwiftClassDeclaration> findMockClasses(PsiFile file) {
+    List<SwiftClassDeclaration> mocks = new ArrayList<>();
+    for (SwiftClassDeclaration classDeclaration : PsiTreeUtil.findChildrenOfType(file, SwiftClassDeclaration.class)) {
+      if (isMockClass(classDeclaration)) {
+        mocks.add(classDeclaration);
+      }
+    }
+    return mocks;
+  }
+
+  public static boolean isMockClass(SwiftClassDeclaration classDeclaration) {
+    String name = classDeclaration.getName();
+    return name != null
+           && (name.startsWith("Mock") || name.endsWith("Mock"))
+           && classDeclaration.getTypeInheritanceClause() != null;
+  }
+
+  /**
+   * @return every Swift file in the project's content below the given roots.
+   */
+  public static List<VirtualFile> findSwiftFiles(@NotNull Project project, @NotNull VirtualFile... roots) {
+    ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+    Set<VirtualFile> files = new LinkedHashSet<>();
+    for (VirtualFile root : roots) {
+      fileIndex.iterateContentUnderDirectory(root, file -> {
+        if (!file.isDirectory() && "swift".equals(file.getExtension())) {
+          files.add(file);
+        }
+        return true;
+      });
+    }
+    return new ArrayList<>(files);
+  }
+
+  /**
+   * Must be called inside a read action when indexes are ready.
+   * Mocks are looked up in the {@link ConformanceIndex} and then resolved to leave out those which only share a protocol's name.
+   * @return the files with a mock that conforms to one of the protocols, directly or through inheritance.
+   */
+  public static List<VirtualFile> findMockFiles(@NotNull Project project, @NotNull Collection<String> protocols) {
+    Set<VirtualFile> files = new LinkedHashSet<>();
+    for (SwiftClassDeclaration mock : ConformanceIndex.findMocks(project, protocols)) {
+      ProgressManager.checkCanceled();
+      if (conformsToAny(mock, protocols)) {
+        files.add(mock.getContainingFile().getVirtualFile());
+      }
+    }
+    return new ArrayList<>(files);
+  }
+
+  private static boolean conformsToAny(SwiftClassDeclaration mock, Collection<String> protocols) {
+    return new ProtocolInheritanceResolver().resolve(mock).stream().anyMatch(p -> protocols.contains(p.getName()));
+  }
+
+  private static class FileAnalysis {
+
+    private final VirtualFile file;
+    private final PsiFile psiFile;
+    private final List<MockAnalysis> mocks;
+    private final long analyseNanos;
+
+    private FileAnalysis(VirtualFile file, PsiFile psiFile, List<MockAnalysis> mocks, long analyseNanos) {
+      this.file = file;
+      this.psiFile = psiFile;
+      this.mocks = mocks;
+      this.analyseNanos = analyseNanos;
+    }
+  }
+
+  public static class FileReport {
+
+    private final String path;
+    private final long analyseNanos;
+    private final List<String> errors = new ArrayList<>();
+    private long applyNanos;
+    private int mocks;
+    private boolean outOfDate;
+
+    private FileReport(String path, long analyseNanos) {
+      this.path = path;
+      this.analyseNanos = analyseNanos;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public long getAnalyseNanos() {
+      return analyseNanos;
+    }
+
+    public long getApplyNanos() {
+      return applyNanos;
+    }
+
+    public int getMocks() {
+      return mocks;
+    }
+
+    public List<String> getErrors() {
+      return errors;
+    }
+
+    /**
+     * @return true when a check found that the file's mocks differ from their regenerated form.
+     */
+    public boolean isOutOfDate() {
+      return outOfDate;
+    }
+
+    @Override
+    public String toString() {
+      return (outOfDate ? "Out of date " : "Regenerated ") + mocks + " mock(s) in " + path
+             + " (analyse: " + toMillis(analyseNanos) + "ms, apply: " + toMillis(applyNanos) + "ms)"
+             + (errors.isEmpty() ? "" : " errors: " + errors);
+    }
+  }
+
+  public static class Result {
+
+    private final List<FileReport> files = new ArrayList<>();
+    private int mocks;
+    private long totalNanos;
+
+    private void add(FileReport report) {
+      files.add(report);
+      mocks += report.mocks;
+    }
+
+    public List<FileReport> getFiles() {
+      return files;
+    }
+
+    public int getMockCount() {
+      return mocks;
+    }
+
+    public int getErrorCount() {
+      return files.stream().mapToInt(f -> f.errors.size()).sum();
+    }
+
+    public int getOutOfDateCount() {
+      return (int) files.stream().filter(f -> f.outOfDate).count();
+    }
+
+    public long getAnalyseNanos() {
+      return files.stream().mapToLong(f -> f.analyseNanos).sum();
+    }
+
+    public long getApplyNanos() {
+      return files.stream().mapToLong(f -> f.applyNanos).sum();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Regenerated " + getMockCount() + " mock(s) in " + files.size() + " file(s) in " + toMillis(totalNanos) + "ms"
+             + " with " + getErrorCount() + " error(s)";
+    }
+  }
+
+  private static long toMillis(long nanos) {
+    return nanos / 1_000_000;
+  }
+}
@@ -0,0 +1,409 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.util.GenerationStatistics;
+import codes.seanhenry.util.GenerationStatistics.Counter;
+import codes.seanhenry.util.GenerationStatistics.Phase;
+import codes.seanhenry.util.SwiftCodeFormatter;
+import codes.seanhenry.util.LongestCommonSubsequence;
+import codes.seanhenry.util.SwiftTextNormaliser;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.CodeStyleSettings;
+import com.intellij.psi.codeStyle.CodeStyleSettingsManager;
+import com.intellij.psi.codeStyle.CommonCodeStyleSettings;
+import com.intellij.psi.impl.source.PostprocessReformattingAspect;
+import com.intellij.util.DocumentUtil;
+import com.jetbrains.swift.psi.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Updates the members of an existing mock class to match a newly generated set of members.
+ * Members whose text is unchanged are left untouched, changed members are replaced in place, new members are inserted
+ * and members that are no longer generated are removed.
+ * Statements between {@link #KEEP_BEGIN} and {@link #KEEP_END} comments are hand written and are never modified.
+ * <p>
+ * In {@link EmissionMode#BULK} the class body is instead replaced with the generated text in one bulk document change
+ * followed by a single commit, which is far cheaper than thousands of PSI insertions for a large mock.
+ * The class declaration is reparsed so it should not be used afterwards.
+ * Classes with keep regions and non physical copies are always updated incrementally.
+ * <p>
+ * Members are laid out with a {@link SwiftCodeFormatter} configured from the project's Swift code style,
+ * so the formatter only runs over the changed ranges when the code style uses a brace placement it cannot reproduce.
+ */
+public class MockClassUpdater {
+
+  private static final Logger LOG = Logger.getInstance(MockClassUpdater.class);
+  public static final String KEEP_BEGIN = "// MockGenerator:keep";
+  public static final String KEEP_END = "// MockGenerator:end-keep";
+  private static final Pattern FUNCTION = Pattern.compile("\\bfunc\\s");
+  private static final Pattern VARIABLE = Pattern.compile("\\bvar\\s+([^\\s:=]+)");
+  private static final AtomicLong bulkUpdates = new AtomicLong();
+  private static final AtomicLong incrementalUpdates = new AtomicLong();
+
+  private final SwiftClassDeclaration classDeclaration;
+  private final EmissionMode emissionMode;
+  private final List<PsiElement> changedElements = new ArrayList<>();
+  private final List<SwiftStatement> existing = new ArrayList<>();
+  private final GenerationStatistics statistics = GenerationStatistics.getInstance();
+  private long reformatNanos;
+  private SwiftCodeFormatter formatter;
+  private boolean needsReformat;
+  private String classIndent;
+  private String memberIndent;
+  private boolean hasKeepRegion;
+  private boolean[] isMatched;
+
+  public MockClassUpdater(SwiftClassDeclaration classDeclaration) {
+    this(classDeclaration, EmissionMode.INCREMENTAL);
+  }
+
+  public MockClassUpdater(SwiftClassDeclaration classDeclaration, EmissionMode emissionMode) {
+    this.classDeclaration = classDeclaration;
+    this.emissionMode = emissionMode;
+  }
+
+  /**
+   * @param generated the text of the members the mock should contain, in order.
+   */
+  public void update(List<String> generated) {
+    long start = System.nanoTime();
+    readCodeStyle();
+    findExistingStatements();
+    int[] matches = matchUnchangedMembers(generated);
+    if (shouldReplaceBody(matches) && replaceBody(generated)) {
+      bulkUpdates.incrementAndGet();
+    } else {
+      PostprocessReformattingAspect.getInstance(classDeclaration.getProject())
+        .disablePostprocessFormattingInside(() -> updateIncrementally(generated, matches));
+      reformatChanges();
+      incrementalUpdates.incrementAndGet();
+    }
+    long nanos = System.nanoTime() - start;
+    statistics.record(Phase.APPLY, nanos - reformatNanos);
+    statistics.increment(Counter.MEMBERS_EMITTED, generated.size());
+    LOG.debug("Updated " + generated.size() + " member(s) in " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+  }
+
+  private void updateIncrementally(List<String> generated, int[] matches) {
+    PsiElement anchor = null;
+    int cursor = 0;
+    for (int i = 0; i < generated.size(); i++) {
+      String member = generated.get(i);
+      if (matches[i] != -1) {
+        deleteUnmatched(cursor, matches[i]);
+        anchor = existing.get(matches[i]);
+        cursor = matches[i] + 1;
+      } else if (isReplaceable(cursor, member)) {
+        anchor = existing.get(cursor).replace(createMember(member));
+        changedElements.add(anchor);
+        cursor++;
+      } else {
+        anchor = insert(createMember(member), anchor, cursor);
+        changedElements.add(anchor);
+      }
+    }
+    deleteUnmatched(cursor, existing.size());
+  }
+
+  private void readCodeStyle() {
+    PsiFile file = classDeclaration.getContainingFile();
+    CodeStyleSettings settings = CodeStyleSettingsManager.getSettings(classDeclaration.getProject());
+    CommonCodeStyleSettings.IndentOptions indentOptions = settings.getIndentOptionsByFile(file);
+    CommonCodeStyleSettings commonSettings = settings.getCommonSettings(classDeclaration.getLanguage());
+    formatter = SwiftCodeFormatter.create(indentOptions.USE_TAB_CHARACTER,
+                                          indentOptions.INDENT_SIZE,
+                                          isNextLine(commonSettings.METHOD_BRACE_STYLE),
+                                          isNextLine(commonSettings.BRACE_STYLE));
+    needsReformat = !isSupported(commonSettings.METHOD_BRACE_STYLE) || !isSupported(commonSettings.BRACE_STYLE);
+    classIndent = findLineIndent(file.getViewProvider().getContents(), classDeclaration.getTextRange().getStartOffset());
+    memberIndent = classIndent + formatter.getIndent();
+  }
+
+  private static boolean isNextLine(int braceStyle) {
+    return braceStyle == CommonCodeStyleSettings.NEXT_LINE;
+  }
+
+  private static boolean isSupported(int braceStyle) {
+    return braceStyle == CommonCodeStyleSettings.END_OF_LINE || braceStyle == CommonCodeStyleSettings.NEXT_LINE;
+  }
+
+  private static String findLineIndent(CharSequence text, int offset) {
+    int lineStart = offset;
+    while (0 < lineStart && text.charAt(lineStart - 1) != '\n') {
+      lineStart--;
+    }
+    int end = lineStart;
+    while (end < offset && (text.charAt(end) == ' ' || text.charAt(end) == '\t')) {
+      end++;
+    }
+    return text.subSequence(lineStart, end).toString();
+  }
+
+  private boolean shouldReplaceBody(int[] matches) {
+    switch (emissionMode) {
+      case BULK:
+        return true;
+      case AUTOMATIC:
+        int unmatched = 0;
+        for (int match : matches) {
+          if (match == -1) {
+            unmatched++;
+          }
+        }
+        return existing.isEmpty() || unmatched * 2 > matches.length;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Replaces everything between the class braces, except the lines before the first member, with the generated text.
+   * @return false when the body cannot be replaced as a document change.
+   */
+  private boolean replaceBody(List<String> generated) {
+    PsiFile file = classDeclaration.getContainingFile();
+    if (hasKeepRegion || file == null || !file.isPhysical()) {
+      return false;
+    }
+    PsiDocumentManager documentManager = PsiDocumentManager.getInstance(classDeclaration.getProject());
+    Document document = documentManager.getDocument(file);
+    if (document == null) {
+      return false;
+    }
+    documentManager.doPostponedOperationsAndUnblockDocument(document);
+    PsiElement leftBrace = findLeftBrace();
+    PsiElement rightBrace = findRightBrace();
+    if (leftBrace == null || rightBrace == null) {
+      return false;
+    }
+    StringBuilder body = new StringBuilder();
+    PsiElement afterLeftBrace = leftBrace.getNextSibling();
+    int start;
+    if (afterLeftBrace instanceof PsiWhiteSpace && afterLeftBrace.getText().contains("\n")) {
+      start = afterLeftBrace.getTextRange().getStartOffset() + afterLeftBrace.getText().lastIndexOf('\n') + 1;
+    } else {
+      start = leftBrace.getTextRange().getEndOffset();
+      body.append('\n');
+    }
+    int end = rightBrace.getTextRange().getStartOffset();
+    for (String member : generated) {
+      body.append(formatter.format(member, memberIndent)).append('\n');
+    }
+    body.append(classIndent);
+    DocumentUtil.executeInBulk(document, true, () -> document.replaceString(start, end, body));
+    statistics.increment(Counter.CHARACTERS_WRITTEN, body.length());
+    documentManager.commitDocument(document);
+    if (needsReformat) {
+      reformat(file, Collections.singletonList(new TextRange(start, start + body.length())));
+    }
+    return true;
+  }
+
+  private PsiElement findLeftBrace() {
+    for (PsiElement child = classDeclaration.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getText().equals("{")) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  private PsiElement findRightBrace() {
+    PsiElement lastChild = classDeclaration.getLastChild();
+    if (lastChild != null && lastChild.getText().equals("}")) {
+      return lastChild;
+    }
+    return null;
+  }
+
+  private PsiElement createMember(String text) {
+    String formatted = formatter.format(text, memberIndent).substring(memberIndent.length());
+    statistics.increment(Counter.PSI_ELEMENTS_CREATED, 1);
+    statistics.increment(Counter.CHARACTERS_WRITTEN, formatted.length());
+    SwiftPsiElementFactory factory = SwiftPsiElementFactory.getInstance(classDeclaration);
+    if (FUNCTION.matcher(getDeclarationHead(text)).find()) {
+      return factory.createFunction(formatted);
+    }
+    return factory.createStatement(formatted);
+  }
+
+  private void findExistingStatements() {
+    boolean isInKeepRegion = false;
+    for (PsiElement child = classDeclaration.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child instanceof PsiComment) {
+        String text = child.getText().trim();
+        if (text.equals(KEEP_BEGIN)) {
+          isInKeepRegion = true;
+          hasKeepRegion = true;
+        } else if (text.equals(KEEP_END)) {
+          isInKeepRegion = false;
+        }
+      } else if (child instanceof SwiftStatement && !isInKeepRegion) {
+        existing.add((SwiftStatement) child);
+      }
+    }
+  }
+
+  /**
+   * Matches generated members to identical existing statements with a longest common subsequence,
+   * so when a member moves only that member is deleted and recreated.
+   * @return for each generated member the index of the matching existing statement or -1.
+   */
+  private int[] matchUnchangedMembers(List<String> generated) {
+    List<String> existingTexts = new ArrayList<>(existing.size());
+    for (SwiftStatement statement : existing) {
+      existingTexts.add(SwiftTextNormaliser.normalise(statement.getText()));
+    }
+    List<String> generatedTexts = new ArrayList<>(generated.size());
+    for (String member : generated) {
+      generatedTexts.add(SwiftTextNormaliser.normalise(member));
+    }
+    int[] matches = LongestCommonSubsequence.match(existingTexts, generatedTexts);
+    isMatched = new boolean[existing.size()];
+    for (int match : matches) {
+      if (match != -1) {
+        isMatched[match] = true;
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * An unmatched statement at the cursor declaring the same member is replaced rather than deleted and reinserted.
+   */
+  private boolean isReplaceable(int cursor, String member) {
+    return cursor < existing.size()
+           && !isMatched[cursor]
+           && getMemberKey(existing.get(cursor).getText()).equals(getMemberKey(member));
+  }
+
+  private void deleteUnmatched(int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!isMatched[i]) {
+        delete(existing.get(i));
+      }
+    }
+  }
+
+  /**
+   * Deletes a statement with the line break separating it from its neighbours.
+   */
+  private void delete(SwiftStatement statement) {
+    PsiElement previous = statement.getPrevSibling();
+    PsiElement next = statement.getNextSibling();
+    if (next instanceof PsiWhiteSpace && next.getNextSibling() != findRightBrace()) {
+      classDeclaration.deleteChildRange(statement, next);
+    } else if (previous instanceof PsiWhiteSpace && previous.getPrevSibling() != findLeftBrace()) {
+      classDeclaration.deleteChildRange(previous, statement);
+    } else {
+      statement.delete();
+    }
+  }
+
+  private PsiElement insert(PsiElement member, PsiElement anchor, int cursor) {
+    PsiElement added;
+    if (anchor != null) {
+      added = classDeclaration.addAfter(member, anchor);
+    } else if (cursor < existing.size()) {
+      added = classDeclaration.addBefore(member, existing.get(cursor));
+    } else {
+      added = classDeclaration.addBefore(member, classDeclaration.getLastChild());
+    }
+    separateLines(added);
+    return added;
+  }
+
+  /**
+   * Puts an inserted member on its own line at the member indent.
+   */
+  private void separateLines(PsiElement added) {
+    PsiElement previous = added.getPrevSibling();
+    String before = previous instanceof PsiWhiteSpace ? previous.getText() : "";
+    String indented = before.substring(0, before.lastIndexOf('\n') + 1);
+    if (indented.isEmpty()) {
+      indented = "\n";
+    }
+    indented += memberIndent;
+    if (previous instanceof PsiWhiteSpace) {
+      if (!indented.equals(before)) {
+        previous.replace(createWhiteSpace(indented));
+      }
+    } else {
+      classDeclaration.addBefore(createWhiteSpace(indented), added);
+    }
+    PsiElement next = added.getNextSibling();
+    if (next != null && !(next instanceof PsiWhiteSpace)) {
+      String nextIndent = next == findRightBrace() ? classIndent : memberIndent;
+      classDeclaration.addAfter(createWhiteSpace("\n" + nextIndent), added);
+    }
+  }
+
+  private PsiElement createWhiteSpace(String text) {
+    statistics.increment(Counter.PSI_ELEMENTS_CREATED, 1);
+    statistics.increment(Counter.CHARACTERS_WRITTEN, text.length());
+    return PsiParserFacade.SERVICE.getInstance(classDeclaration.getProject()).createWhiteSpaceFromText(text);
+  }
+
+  private void reformatChanges() {
+    if (!needsReformat) {
+      return;
+    }
+    List<TextRange> ranges = new ArrayList<>();
+    for (PsiElement element : changedElements) {
+      if (element.isValid()) {
+        ranges.add(element.getTextRange());
+      }
+    }
+    if (!ranges.isEmpty()) {
+      reformat(classDeclaration.getContainingFile(), ranges);
+    }
+  }
+
+  private void reformat(PsiFile file, List<TextRange> ranges) {
+    long start = System.nanoTime();
+    CodeStyleManager.getInstance(file.getProject()).reformatText(file, ranges);
+    long nanos = System.nanoTime() - start;
+    reformatNanos += nanos;
+    statistics.record(Phase.REFORMAT, nanos);
+  }
+
+  /**
+   * @return the name a member declares, used to replace a changed member in place.
+   * Functions are keyed by their signature and variables by their name.
+   */
+  static String getMemberKey(String member) {
+    String head = getDeclarationHead(member);
+    if (!FUNCTION.matcher(head).find()) {
+      Matcher variable = VARIABLE.matcher(head);
+      if (variable.find()) {
+        return "var " + variable.group(1);
+      }
+    }
+    return SwiftTextNormaliser.normalise(head);
+  }
+
+  /**
+   * @return the text before a member's body.
+   */
+  private static String getDeclarationHead(String member) {
+    int body = member.indexOf('{');
+    return body == -1 ? member : member.substring(0, body);
+  }
+
+  public static String getStatistics() {
+    return "Mock class updates: " + bulkUpdates.get() + " bulk, " + incrementalUpdates.get() + " incremental";
+  }
+
+  public static void resetStatistics() {
+    bulkUpdates.set(0);
+    incrementalUpdates.set(0);
+  }
+}
@@ -0,0 +1,196 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.settings.MockGeneratorSettings;
+import codes.seanhenry.util.Fingerprint;
+import codes.seanhenry.util.SwiftTextNormaliser;
+import codes.seanhenry.util.TypeResolutionCache;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.jetbrains.swift.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A Merkle hash of the protocols a mock conforms to, stored in a comment above the mock to detect when it is out of date.
+ * Each protocol is hashed from its own members and the hashes of the protocols it inherits from.
+ * A protocol's own hash is cached until its file changes. Its rolled up hash is cached until its file or the file of any protocol
+ * it inherits from changes, so a change is passed up to the protocols inheriting from it and unchanged subtrees stay cached.
+ * A project protocol's references may resolve elsewhere after any change outside a code block, so its rolled up hash also depends
+ * on the out of code block tracker. SDK and library protocols cannot be redeclared by the project so they depend on their files only.
+ * A protocol is hashed once however many mocks conform to it.
+ * The settings which change the generated code are hashed too, so changing them reports every mock as out of date.
+ */
+public class MockFingerprint {
+
+  public static final String COMMENT_PREFIX = "// MockGenerator:fingerprint ";
+  // change when the generated code changes so existing mocks are reported as out of date
+  private static final int FORMAT_VERSION = 2;
+  private static final Key<CachedValue<Long>> OWN_HASH_KEY = Key.create("codes.seanhenry.generator.MockFingerprint.own");
+  private static final Key<CachedValue<Node>> NODE_KEY = Key.create("codes.seanhenry.generator.MockFingerprint.node");
+
+  /**
+   * The rolled up hash of a protocol and the files of the protocols it was computed from.
+   */
+  private static class Node {
+
+    private final long hash;
+    private final Set<PsiFile> files;
+
+    private Node(long hash, Set<PsiFile> files) {
+      this.hash = hash;
+      this.files = files;
+    }
+  }
+
+  private MockFingerprint() {
+  }
+
+  /**
+   * Must be called inside a read action.
+   * @return the fingerprint of the protocols the mock currently conforms to.
+   */
+  public static String compute(@NotNull SwiftClassDeclaration classDeclaration) {
+    Fingerprint fingerprint = new Fingerprint().add(FORMAT_VERSION);
+    addSettings(fingerprint, MockGeneratorSettings.getInstance(classDeclaration.getProject()));
+    addInheritanceClause(fingerprint, classDeclaration, new HashSet<>());
+    return Fingerprint.toHex(fingerprint.getHash());
+  }
+
+  private static void addSettings(Fingerprint fingerprint, MockGeneratorSettings settings) {
+    MockGeneratorSettings.State state = settings.getState();
+    fingerprint
+      .add(settings.isTypeCheckerFriendly() ? 1 : 0)
+      .add(settings.isThreadSafe() ? 1 : 0)
+      .add(state.invokedPropertyTemplate)
+      .add(state.stubbedPropertyTemplate)
+      .add(state.invokedMethodTemplate)
+      .add(state.invocationCountTemplate)
+      .add(state.invokedParametersTemplate)
+      .add(state.stubbedResultTemplate)
+      .add(state.stubbedClosureResultTemplate);
+  }
+
+  private static long getOwnHash(SwiftProtocolDeclaration protocol) {
+    return CachedValuesManager.getCachedValue(protocol, OWN_HASH_KEY, () -> {
+      Fingerprint fingerprint = new Fingerprint().add(protocol.getName() == null ? "" : protocol.getName());
+      ProtocolMembers members = ProtocolMembersCache.getMembers(protocol);
+      members.getAssociatedTypes().forEach(t -> fingerprint.add(SwiftTextNormaliser.normalise(t.getText())));
+      members.getProperties().forEach(p -> fingerprint.add(SwiftTextNormaliser.normalise(p.getText())));
+      members.getMethods().forEach(m -> fingerprint.add(SwiftTextNormaliser.normalise(m.getText())));
+      return CachedValueProvider.Result.create(fingerprint.getHash(), protocol.getContainingFile());
+    });
+  }
+
+  private static Node getNode(SwiftProtocolDeclaration protocol) {
+    return CachedValuesManager.getCachedValue(protocol, NODE_KEY, () -> {
+      Fingerprint fingerprint = new Fingerprint().add(getOwnHash(protocol));
+      Set<PsiFile> files = new HashSet<>();
+      files.add(protocol.getContainingFile());
+      addInheritanceClause(fingerprint, protocol, files);
+      List<Object> dependencies = new ArrayList<>(files);
+      if (!ProtocolModelCache.getInstance().isCacheable(protocol)) {
+        dependencies.add(PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+      }
+      return CachedValueProvider.Result.create(new Node(fingerprint.getHash(), files), dependencies.toArray());
+    });
+  }
+
+  /**
+   * Adds the hash of each inherited protocol and collects the files they were computed from.
+   */
+  private static void addInheritanceClause(Fingerprint fingerprint, SwiftTypeDeclaration typeDeclaration, Set<PsiFile> files) {
+    SwiftTypeInheritanceClause inheritanceClause = typeDeclaration.getTypeInheritanceClause();
+    if (inheritanceClause == null) {
+      return;
+    }
+    for (SwiftReferenceTypeElement reference : inheritanceClause.getReferenceTypeElementList()) {
+      PsiElement resolved = TypeResolutionCache.getInstance(reference.getProject()).resolve(reference);
+      if (!(resolved instanceof SwiftProtocolDeclaration)) {
+        fingerprint.add(reference.getText());
+        continue;
+      }
+      SwiftProtocolDeclaration protocol = (SwiftProtocolDeclaration) resolved;
+      // a protocol inheriting from itself is hashed by name where the cycle closes
+      Node node = RecursionManager.doPreventingRecursion(protocol, false, () -> getNode(protocol));
+      if (node == null) {
+        fingerprint.add(reference.getText());
+      } else {
+        fingerprint.add(node.hash);
+        files.addAll(node.files);
+      }
+    }
+  }
+
+  /**
+   * @return the fingerprint stored above the mock, or null when it has none.
+   */
+  @Nullable
+  public static String read(@NotNull SwiftClassDeclaration classDeclaration) {
+    PsiComment comment = findComment(classDeclaration);
+    if (comment == null) {
+      return null;
+    }
+    return comment.getText().substring(COMMENT_PREFIX.length()).trim();
+  }
+
+  /**
+   * Adds or updates the fingerprint comment above the mock. Must be called inside a write action.
+   */
+  public static void write(@NotNull SwiftClassDeclaration classDeclaration, @NotNull String fingerprint) {
+    String text = COMMENT_PREFIX + fingerprint;
+    PsiComment existing = findComment(classDeclaration);
+    if (existing != null && existing.getText().equals(text)) {
+      return;
+    }
+    PsiParserFacade parserFacade = PsiParserFacade.SERVICE.getInstance(classDeclaration.getProject());
+    PsiComment comment = parserFacade.createLineCommentFromText(classDeclaration.getLanguage(), text);
+    if (existing != null) {
+      existing.replace(comment);
+      return;
+    }
+    PsiElement parent = classDeclaration.getParent();
+    PsiElement added = parent.addBefore(comment, classDeclaration);
+    parent.addAfter(parserFacade.createWhiteSpaceFromText("\n" + findIndent(classDeclaration)), added);
+  }
+
+  private static String findIndent(PsiElement element) {
+    PsiElement previous = element.getPrevSibling();
+    if (previous instanceof PsiWhiteSpace) {
+      String text = previous.getText();
+      return text.substring(text.lastIndexOf('\n') + 1);
+    }
+    return "";
+  }
+
+  /**
+   * The comment is looked for before the class and before the class keyword, as comments may be bound to the declaration.
+   */
+  @Nullable
+  private static PsiComment findComment(SwiftClassDeclaration classDeclaration) {
+    for (PsiElement e = classDeclaration.getFirstChild(); e instanceof PsiComment || e instanceof PsiWhiteSpace; e = e.getNextSibling()) {
+      if (isFingerprintComment(e)) {
+        return (PsiComment) e;
+      }
+    }
+    for (PsiElement e = classDeclaration.getPrevSibling(); e instanceof PsiComment || e instanceof PsiWhiteSpace; e = e.getPrevSibling()) {
+      if (isFingerprintComment(e)) {
+        return (PsiComment) e;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isFingerprintComment(PsiElement element) {
+    return element instanceof PsiComment && element.getText().startsWith(COMMENT_PREFIX);
+  }
+}
@@ -0,0 +1,188 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.model.MockClass;
+import codes.seanhenry.model.MockRenderer;
+import codes.seanhenry.settings.MockGeneratorSettings;
+import codes.seanhenry.util.GenerationStatistics;
+import codes.seanhenry.util.GenerationStatistics.Counter;
+import codes.seanhenry.util.GenerationStatistics.Phase;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiParserFacade;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.swift.psi.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the members described by a {@link MockAnalysis} into its mock class.
+ * Members are rendered as text by a {@link MockRenderer} and handed to a {@link MockClassUpdater} which either changes
+ * only the members that differ or replaces the class body in one document change, see {@link EmissionMode}.
+ * {@link #render()} can be called first on any thread so that {@link #generate()}, which must be called inside a write action,
+ * only applies the rendered text.
+ */
+public class MockGenerator {
+
+  private static final Pattern FINAL = Pattern.compile("\\bfinal\\b");
+  private static final Pattern ANY_IMPORT = Pattern.compile("(@testable\\s+)?import\\s.*", Pattern.DOTALL);
+  private static final Pattern FOUNDATION_IMPORT =
+    Pattern.compile("(@testable\\s+)?import\\s+(Foundation|UIKit|AppKit|Cocoa|XCTest)\\b.*", Pattern.DOTALL);
+
+  private final MockAnalysis analysis;
+  private final SwiftClassDeclaration classDeclaration;
+  private EmissionMode emissionMode = EmissionMode.AUTOMATIC;
+  private List<String> members;
+  private String genericParameterClause;
+  private String fingerprint;
+  private boolean isFinal;
+  private boolean requiresFoundation;
+
+  public MockGenerator(@NotNull MockAnalysis analysis) {
+    this(analysis, analysis.getClassDeclaration());
+  }
+
+  /**
+   * @param target the class to write the mock into. Usually the analysed class or a copy of it.
+   */
+  public MockGenerator(@NotNull MockAnalysis analysis, @NotNull SwiftClassDeclaration target) {
+    this.analysis = analysis;
+    this.classDeclaration = target;
+  }
+
+  public void setEmissionMode(@NotNull EmissionMode emissionMode) {
+    this.emissionMode = emissionMode;
+  }
+
+  /**
+   * Renders the mock without touching the PSI. Checks for cancellation between members.
+   */
+  public void render() {
+    MockClass model = analysis.getModel();
+    if (model == null) {
+      members = Collections.emptyList();
+      return;
+    }
+    GenerationStatistics statistics = GenerationStatistics.getInstance();
+    MockGeneratorSettings settings = MockGeneratorSettings.getInstance(classDeclaration.getProject());
+    MockRenderer renderer = new MockRenderer(settings.getNamingConvention());
+    renderer.setCancellationCheck(ProgressManager::checkCanceled);
+    renderer.setTypeCheckerFriendly(settings.isTypeCheckerFriendly());
+    renderer.setThreadSafe(settings.isThreadSafe());
+    isFinal = settings.isTypeCheckerFriendly();
+    long start = System.nanoTime();
+    members = renderer.render(model);
+    requiresFoundation = renderer.requiresFoundation();
+    statistics.record(Phase.RENDER, System.nanoTime() - start - renderer.getNamingNanos());
+    statistics.record(Phase.NAME_METHODS, renderer.getNamingNanos());
+    genericParameterClause = renderer.renderGenericParameterClause(model);
+    if (shouldWriteFingerprint(settings)) {
+      fingerprint = MockFingerprint.compute(analysis.getClassDeclaration());
+    }
+  }
+
+  /**
+   * Mocks are marked when the project asks for it and kept marked once they have been.
+   */
+  private boolean shouldWriteFingerprint(MockGeneratorSettings settings) {
+    return settings.isWriteFingerprint()
+           || MockFingerprint.read(classDeclaration) != null;
+  }
+
+  public void generate() {
+    if (analysis.getModel() == null) {
+      return;
+    }
+    if (members == null) {
+      render();
+    }
+    updateFinalModifier();
+    if (requiresFoundation) {
+      importFoundation();
+    }
+    addGenericParametersToClass(genericParameterClause);
+    if (fingerprint != null) {
+      MockFingerprint.write(classDeclaration, fingerprint);
+    }
+    new MockClassUpdater(classDeclaration, emissionMode).update(members);
+  }
+
+  /**
+   * Final classes let the compiler dispatch statically and skip checking overrides.
+   * The modifier is removed again when the option is off so the mock does not depend on how it was generated before.
+   */
+  private void updateFinalModifier() {
+    PsiElement attributes = classDeclaration.getAttributes();
+    String text = attributes.getText().trim();
+    boolean hasFinal = FINAL.matcher(text).find();
+    if (hasFinal == isFinal) {
+      return;
+    }
+    String literal = isFinal ? text + " final" : FINAL.matcher(text).replaceAll(" ").trim().replaceAll("\\s+", " ");
+    if (literal.trim().isEmpty()) {
+      PsiElement next = attributes.getNextSibling();
+      if (next instanceof PsiWhiteSpace) {
+        next.delete();
+      }
+      attributes.deleteChildRange(attributes.getFirstChild(), attributes.getLastChild());
+      return;
+    }
+    SwiftStatement statement = SwiftPsiElementFactory.getInstance(classDeclaration).createStatement(literal.trim() + " class A {}");
+    GenerationStatistics.getInstance().increment(Counter.PSI_ELEMENTS_CREATED, 1);
+    SwiftClassDeclaration template = PsiTreeUtil.getParentOfType(statement, SwiftClassDeclaration.class, false);
+    if (template == null) {
+      template = PsiTreeUtil.findChildOfType(statement, SwiftClassDeclaration.class);
+    }
+    if (template == null) {
+      return;
+    }
+    PsiElement replaced = attributes.replace(template.getAttributes());
+    if (!(replaced.getNextSibling() instanceof PsiWhiteSpace)) {
+      PsiParserFacade parserFacade = PsiParserFacade.SERVICE.getInstance(classDeclaration.getProject());
+      classDeclaration.addAfter(parserFacade.createWhiteSpaceFromText(" "), replaced);
+    }
+  }
+
+  /**
+   * Thread safe mocks use {@code NSLock}. Modules which export Foundation are accepted in its place.
+   */
+  private void importFoundation() {
+    PsiFile file = classDeclaration.getContainingFile();
+    PsiElement firstImport = null;
+    for (PsiElement child : file.getChildren()) {
+      String text = child.getText().trim();
+      if (FOUNDATION_IMPORT.matcher(text).matches()) {
+        return;
+      }
+      if (firstImport == null && ANY_IMPORT.matcher(text).matches()) {
+        firstImport = child;
+      }
+    }
+    PsiElement anchor = firstImport == null ? PsiTreeUtil.findPrevParent(file, classDeclaration) : firstImport;
+    SwiftStatement statement = SwiftPsiElementFactory.getInstance(classDeclaration).createStatement("import Foundation");
+    GenerationStatistics.getInstance().increment(Counter.PSI_ELEMENTS_CREATED, 1);
+    PsiParserFacade parserFacade = PsiParserFacade.SERVICE.getInstance(classDeclaration.getProject());
+    file.addBefore(statement, anchor);
+    file.addBefore(parserFacade.createWhiteSpaceFromText(firstImport == null ? "\n\n" : "\n"), anchor);
+  }
+
+  private void addGenericParametersToClass(String literal) {
+    if (literal == null) {
+      return;
+    }
+    SwiftGenericParameterClause existingClause = classDeclaration.getGenericParameterClause();
+    if (existingClause != null && existingClause.getText().equals(literal)) {
+      return;
+    }
+    if (existingClause != null) {
+      existingClause.delete();
+    }
+    SwiftStatement statement = SwiftPsiElementFactory.getInstance(classDeclaration).createStatement(literal);
+    GenerationStatistics.getInstance().increment(Counter.PSI_ELEMENTS_CREATED, 1);
+    classDeclaration.addBefore(statement, classDeclaration.getTypeInheritanceClause());
+  }
+}
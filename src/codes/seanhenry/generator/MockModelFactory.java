@@ -0,0 +1,122 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.model.*;
+import codes.seanhenry.util.MySwiftPsiUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.swift.psi.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a {@link ProtocolModel} from the PSI of each protocol and a {@link MockClass} from their merged members.
+ * Must be called inside a read action, the model can then be used on any thread.
+ */
+public class MockModelFactory {
+
+  private MockModelFactory() {
+  }
+
+  /**
+   * @param members the merged members of every protocol the mock conforms to.
+   */
+  public static MockClass create(SwiftClassDeclaration classDeclaration, ProtocolMemberMerger members) {
+    return new MockClass(
+      getScope(classDeclaration),
+      members.getAssociatedTypes(),
+      members.getProperties(),
+      members.getMethods()
+    );
+  }
+
+  public static ProtocolModel createProtocolModel(ProtocolMembers members) {
+    return new ProtocolModel(
+      members.getProtocol().getName(),
+      members.getAssociatedTypes().stream().map(PsiNamedElement::getName).collect(Collectors.toList()),
+      members.getProperties().stream().map(MockModelFactory::createProperty).collect(Collectors.toList()),
+      members.getMethods().stream().map(MockModelFactory::createMethod).collect(Collectors.toList())
+    );
+  }
+
+  private static String getScope(SwiftClassDeclaration classDeclaration) {
+    if (classDeclaration.getAttributes().getText().contains("public")) {
+      return "public ";
+    }
+    return "";
+  }
+
+  private static Property createProperty(SwiftVariableDeclaration property) {
+    ProgressManager.checkCanceled();
+    SwiftTypeAnnotatedPattern pattern = (SwiftTypeAnnotatedPattern) property.getPatternInitializerList().get(0).getPattern();
+    boolean hasSetter = PsiTreeUtil.findChildOfType(property, SwiftSetterClause.class) != null;
+    return new Property(
+      pattern.getPattern().getText(),
+      property.getAttributes().getText().trim(),
+      removeColon(pattern.getTypeAnnotation().getText()),
+      MySwiftPsiUtil.getResolvedTypeName(pattern.getTypeAnnotation(), true),
+      MySwiftPsiUtil.isOptional(pattern.getTypeAnnotation()),
+      hasSetter
+    );
+  }
+
+  private static String removeColon(String typeAnnotation) {
+    String trimmed = typeAnnotation.trim();
+    return trimmed.startsWith(":") ? trimmed.substring(1).trim() : trimmed;
+  }
+
+  private static Method createMethod(SwiftFunctionDeclaration function) {
+    ProgressManager.checkCanceled();
+    List<Parameter> parameters = function.getParameterClauseList()
+      .stream()
+      .map(SwiftParameterClause::getParameterList)
+      .flatMap(Collection::stream)
+      .map(MockModelFactory::createParameter)
+      .collect(Collectors.toList());
+    SwiftFunctionResult result = function.getFunctionResult();
+    if (result == null) {
+      return new Method(function.getName(), parameters);
+    }
+    return new Method(
+      function.getName(),
+      parameters,
+      result.getTypeElement().getText(),
+      MySwiftPsiUtil.getResolvedTypeName(result),
+      MySwiftPsiUtil.isOptional(result),
+      MySwiftPsiUtil.findResolvedType(result, SwiftFunctionTypeElement.class) != null
+    );
+  }
+
+  private static Parameter createParameter(SwiftParameter parameter) {
+    String labels = PsiTreeUtil.findChildrenOfAnyType(parameter, SwiftIdentifierPattern.class, SwiftWildcardPattern.class)
+      .stream()
+      .map(p -> p.getText())
+      .collect(Collectors.joining(" "));
+    SwiftParameterTypeAnnotation typeAnnotation = parameter.getParameterTypeAnnotation();
+    return new Parameter(
+      parameter.getText(),
+      labels,
+      parameter.getName(),
+      typeAnnotation.getAttributes().getText().trim(),
+      MySwiftPsiUtil.getResolvedTypeName(parameter, false),
+      MySwiftPsiUtil.getResolvedTypeName(typeAnnotation, true),
+      MySwiftPsiUtil.containsOptionalOfType(typeAnnotation, SwiftReferenceTypeElement.class),
+      createClosure(parameter)
+    );
+  }
+
+  private static Closure createClosure(SwiftParameter parameter) {
+    SwiftFunctionTypeElement closure = MySwiftPsiUtil.findResolvedType(parameter, SwiftFunctionTypeElement.class);
+    if (closure == null) {
+      return null;
+    }
+    SwiftTupleTypeElement firstTuple = PsiTreeUtil.findChildOfType(closure, SwiftTupleTypeElement.class);
+    List<String> parameterTypes = PsiTreeUtil.findChildrenOfType(firstTuple, SwiftTupleTypeItem.class)
+      .stream()
+      .map(t -> t.getTypeElement().getText())
+      .collect(Collectors.toList());
+    return new Closure(parameterTypes, MySwiftPsiUtil.containsOptionalOfType(parameter, SwiftTupleTypeElement.class));
+  }
+}
@@ -0,0 +1,215 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.util.TypeResolutionCache;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiElement;
+import com.jetbrains.swift.psi.SwiftProtocolDeclaration;
+import com.jetbrains.swift.psi.SwiftReferenceTypeElement;
+import com.jetbrains.swift.psi.SwiftTypeDeclaration;
+import com.jetbrains.swift.psi.SwiftTypeInheritanceClause;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Resolves every protocol a type conforms to, directly or through inheritance.
+ * The inheritance graph is walked breadth first with a visited set so each protocol is resolved once however many paths lead to it.
+ * Protocols are returned in topological order, a protocol always comes before the protocols it inherits from,
+ * with ties broken by the order they were discovered in.
+ * Protocols in a cycle are reported as a warning and they, and the protocols they inherit from, are appended in discovery order.
+ * Protocols whose inherited protocols are already known, such as those in the {@link ProtocolModelCache}, can be left unwalked.
+ * Once resolved, the protocols a walked protocol inherits from can be read from the same graph without resolving them again.
+ */
+public class ProtocolInheritanceResolver {
+
+  private final Map<SwiftProtocolDeclaration, Integer> discoveryIndices = new HashMap<>();
+  private final List<SwiftProtocolDeclaration> discovered = new ArrayList<>();
+  private final List<List<Integer>> inherited = new ArrayList<>();
+  private final List<String> warnings = new ArrayList<>();
+  private final Predicate<SwiftProtocolDeclaration> isWalked;
+
+  public ProtocolInheritanceResolver() {
+    this(p -> true);
+  }
+
+  /**
+   * @param isWalked false for protocols whose inheritance clause should not be resolved.
+   */
+  public ProtocolInheritanceResolver(@NotNull Predicate<SwiftProtocolDeclaration> isWalked) {
+    this.isWalked = isWalked;
+  }
+
+  /**
+   * @return the resolved protocols. Must be called inside a read action.
+   */
+  public List<SwiftProtocolDeclaration> resolve(@NotNull SwiftTypeDeclaration typeDeclaration) {
+    for (SwiftProtocolDeclaration protocol : resolveInheritanceClause(typeDeclaration)) {
+      discover(protocol);
+    }
+    for (int i = 0; i < discovered.size(); i++) {
+      ProgressManager.checkCanceled();
+      List<Integer> parents = inherited.get(i);
+      if (!isWalked.test(discovered.get(i))) {
+        continue;
+      }
+      for (SwiftProtocolDeclaration parent : resolveInheritanceClause(discovered.get(i))) {
+        int parentIndex = discover(parent);
+        if (!parents.contains(parentIndex)) {
+          parents.add(parentIndex);
+        }
+      }
+    }
+    List<Integer> all = new ArrayList<>(discovered.size());
+    for (int i = 0; i < discovered.size(); i++) {
+      all.add(i);
+    }
+    return sortTopologically(all, true);
+  }
+
+  /**
+   * Reads the protocols a protocol inherits from out of the graph walked by {@link #resolve(SwiftTypeDeclaration)},
+   * in the order a resolver walking from the protocol would return them.
+   * The protocols a protocol which was not walked inherits from are left out.
+   * @return the inherited protocols or an empty list when the protocol was not resolved.
+   */
+  public List<SwiftProtocolDeclaration> getInheritedProtocols(@NotNull SwiftProtocolDeclaration protocol) {
+    Integer root = discoveryIndices.get(protocol);
+    if (root == null) {
+      return Collections.emptyList();
+    }
+    // breadth first from the protocol's parents, as a walk starting at the protocol would discover them
+    List<Integer> reachable = new ArrayList<>();
+    Set<Integer> visited = new HashSet<>();
+    visited.add(root);
+    for (int parent : inherited.get(root)) {
+      if (visited.add(parent)) {
+        reachable.add(parent);
+      }
+    }
+    for (int i = 0; i < reachable.size(); i++) {
+      for (int parent : inherited.get(reachable.get(i))) {
+        if (visited.add(parent)) {
+          reachable.add(parent);
+        }
+      }
+    }
+    return sortTopologically(reachable, false);
+  }
+
+  private int discover(SwiftProtocolDeclaration protocol) {
+    Integer index = discoveryIndices.get(protocol);
+    if (index == null) {
+      index = discovered.size();
+      discoveryIndices.put(protocol, index);
+      discovered.add(protocol);
+      inherited.add(new ArrayList<>());
+    }
+    return index;
+  }
+
+  /**
+   * @param nodes the indices of the protocols to sort in the order they were discovered in, which breaks ties.
+   *              Inherited protocols which are not included are ignored.
+   */
+  private List<SwiftProtocolDeclaration> sortTopologically(List<Integer> nodes, boolean isReportingCycles) {
+    int[] order = new int[discovered.size()];
+    int[] inDegrees = new int[discovered.size()];
+    boolean[] isIncluded = new boolean[discovered.size()];
+    nodes.forEach(index -> isIncluded[index] = true);
+    for (int i = 0; i < nodes.size(); i++) {
+      order[nodes.get(i)] = i;
+      for (int parent : inherited.get(nodes.get(i))) {
+        if (isIncluded[parent]) {
+          inDegrees[parent]++;
+        }
+      }
+    }
+    PriorityQueue<Integer> ready = new PriorityQueue<>(Comparator.comparingInt((Integer index) -> order[index]));
+    for (int index : nodes) {
+      if (inDegrees[index] == 0) {
+        ready.add(index);
+      }
+    }
+    List<SwiftProtocolDeclaration> sorted = new ArrayList<>(nodes.size());
+    boolean[] isSorted = new boolean[discovered.size()];
+    while (!ready.isEmpty()) {
+      int index = ready.poll();
+      sorted.add(discovered.get(index));
+      isSorted[index] = true;
+      for (int parent : inherited.get(index)) {
+        if (isIncluded[parent] && --inDegrees[parent] == 0) {
+          ready.add(parent);
+        }
+      }
+    }
+    for (int index : nodes) {
+      if (!isSorted[index]) {
+        // protocols left unsorted are either in a cycle or inherited from one
+        if (isReportingCycles && isInCycle(index, isSorted)) {
+          warnings.add("The protocol '" + discovered.get(index).getName() + "' inherits from itself.");
+        }
+        sorted.add(discovered.get(index));
+      }
+    }
+    return sorted;
+  }
+
+  private boolean isInCycle(int index, boolean[] isSorted) {
+    boolean[] visited = new boolean[discovered.size()];
+    Deque<Integer> stack = new ArrayDeque<>(inherited.get(index));
+    while (!stack.isEmpty()) {
+      int next = stack.pop();
+      if (next == index) {
+        return true;
+      }
+      if (!isSorted[next] && !visited[next]) {
+        visited[next] = true;
+        stack.addAll(inherited.get(next));
+      }
+    }
+    return false;
+  }
+
+  private List<SwiftProtocolDeclaration> resolveInheritanceClause(SwiftTypeDeclaration typeDeclaration) {
+    SwiftTypeInheritanceClause inheritanceClause = typeDeclaration.getTypeInheritanceClause();
+    if (inheritanceClause == null) {
+      return Collections.emptyList();
+    }
+    List<SwiftProtocolDeclaration> protocols = new ArrayList<>();
+    for (SwiftReferenceTypeElement reference : inheritanceClause.getReferenceTypeElementList()) {
+      SwiftProtocolDeclaration protocol = resolveProtocol(reference);
+      if (protocol != null) {
+        protocols.add(protocol);
+      }
+    }
+    return protocols;
+  }
+
+  private SwiftProtocolDeclaration resolveProtocol(SwiftReferenceTypeElement reference) {
+    // each protocol is walked once so each reference is resolved once, and the cache shares resolutions between mocks
+    PsiElement element = TypeResolutionCache.getInstance(reference.getProject()).resolve(reference);
+    if (element == null) {
+      addWarning("The protocol '" + reference.getName() + "' could not be found.");
+    } else if (!(element instanceof SwiftProtocolDeclaration)) {
+      addWarning("This plugin currently only supports protocols.");
+    }
+    if (element instanceof SwiftProtocolDeclaration) {
+      return (SwiftProtocolDeclaration) element;
+    }
+    return null;
+  }
+
+  private void addWarning(String warning) {
+    if (!warnings.contains(warning)) {
+      warnings.add(warning);
+    }
+  }
+
+  /**
+   * @return non fatal problems found while resolving the protocols.
+   */
+  public List<String> getWarnings() {
+    return warnings;
+  }
+}
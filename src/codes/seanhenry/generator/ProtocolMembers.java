@@ -0,0 +1,60 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.util.MultiTypeElementGatherer;
+import com.jetbrains.swift.psi.SwiftAssociatedTypeDeclaration;
+import com.jetbrains.swift.psi.SwiftFunctionDeclaration;
+import com.jetbrains.swift.psi.SwiftProtocolDeclaration;
+import com.jetbrains.swift.psi.SwiftVariableDeclaration;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The members declared directly in a single protocol.
+ */
+public class ProtocolMembers {
+
+  private final SwiftProtocolDeclaration protocol;
+  private final List<SwiftFunctionDeclaration> methods;
+  private final List<SwiftVariableDeclaration> properties;
+  private final List<SwiftAssociatedTypeDeclaration> associatedTypes;
+
+  private ProtocolMembers(SwiftProtocolDeclaration protocol,
+                          List<SwiftFunctionDeclaration> methods,
+                          List<SwiftVariableDeclaration> properties,
+                          List<SwiftAssociatedTypeDeclaration> associatedTypes) {
+    this.protocol = protocol;
+    this.methods = Collections.unmodifiableList(methods);
+    this.properties = Collections.unmodifiableList(properties);
+    this.associatedTypes = Collections.unmodifiableList(associatedTypes);
+  }
+
+  public static ProtocolMembers gather(SwiftProtocolDeclaration protocol) {
+    MultiTypeElementGatherer gatherer = new MultiTypeElementGatherer(
+      SwiftFunctionDeclaration.class,
+      SwiftVariableDeclaration.class,
+      SwiftAssociatedTypeDeclaration.class
+    );
+    gatherer.gather(protocol);
+    return new ProtocolMembers(protocol,
+                               gatherer.getElements(SwiftFunctionDeclaration.class),
+                               gatherer.getElements(SwiftVariableDeclaration.class),
+                               gatherer.getElements(SwiftAssociatedTypeDeclaration.class));
+  }
+
+  public SwiftProtocolDeclaration getProtocol() {
+    return protocol;
+  }
+
+  public List<SwiftFunctionDeclaration> getMethods() {
+    return methods;
+  }
+
+  public List<SwiftVariableDeclaration> getProperties() {
+    return properties;
+  }
+
+  public List<SwiftAssociatedTypeDeclaration> getAssociatedTypes() {
+    return associatedTypes;
+  }
+}
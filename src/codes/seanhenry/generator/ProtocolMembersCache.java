@@ -0,0 +1,53 @@
+package codes.seanhenry.generator;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.jetbrains.swift.psi.SwiftProtocolDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the members gathered from each protocol until the file declaring the protocol changes.
+ * Values are stored with {@link CachedValuesManager} which holds them softly, so they are released under memory pressure.
+ * Editing a mock does not invalidate the protocols it conforms to, so SDK protocols are only walked once per session.
+ */
+public class ProtocolMembersCache {
+
+  private static final Key<CachedValue<ProtocolMembers>> MEMBERS_KEY = Key.create("codes.seanhenry.generator.ProtocolMembers");
+  private static final AtomicLong requests = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+
+  private ProtocolMembersCache() {
+  }
+
+  /**
+   * Must be called inside a read action.
+   */
+  public static ProtocolMembers getMembers(@NotNull SwiftProtocolDeclaration protocol) {
+    requests.incrementAndGet();
+    return CachedValuesManager.getCachedValue(protocol, MEMBERS_KEY, () -> {
+      misses.incrementAndGet();
+      return CachedValueProvider.Result.create(ProtocolMembers.gather(protocol), protocol.getContainingFile());
+    });
+  }
+
+  public static long getHitCount() {
+    return requests.get() - misses.get();
+  }
+
+  public static long getMissCount() {
+    return misses.get();
+  }
+
+  public static String getStatistics() {
+    return "Protocol members cache: " + getHitCount() + " hit(s), " + getMissCount() + " miss(es)";
+  }
+
+  public static void resetStatistics() {
+    requests.set(0);
+    misses.set(0);
+  }
+}
@@ -0,0 +1,159 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.model.ProtocolModel;
+import codes.seanhenry.model.ProtocolModelFile;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.jetbrains.swift.psi.SwiftProtocolDeclaration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the models of SDK and library protocols on disk between sessions.
+ * These protocols only change with the SDK or library, so once a protocol and the protocols it inherits from have been read
+ * they are loaded from the cache without walking their PSI again.
+ * Entries are keyed by the protocol's file and name and are ignored when the file's modification stamp or length changes.
+ * Project protocols are never stored.
+ */
+public class ProtocolModelCache implements Disposable {
+
+  private static final Logger LOG = Logger.getInstance(ProtocolModelCache.class);
+  private static final AtomicLong hits = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+
+  private volatile ProtocolModelFile file;
+
+  public static ProtocolModelCache getInstance() {
+    return ServiceManager.getService(ProtocolModelCache.class);
+  }
+
+  /**
+   * Must be called inside a read action.
+   * @return the models of the protocol followed by the protocols it inherits from, or null when the protocol is not cached.
+   */
+  @Nullable
+  public List<ProtocolModel> get(@NotNull SwiftProtocolDeclaration protocol) {
+    VirtualFile virtualFile = getLibraryFile(protocol);
+    if (virtualFile == null) {
+      return null;
+    }
+    List<ProtocolModel> models = getFile().get(getKey(virtualFile, protocol), getVersion(virtualFile));
+    (models == null ? misses : hits).incrementAndGet();
+    return models;
+  }
+
+  /**
+   * Stores the models of a protocol when it comes from an SDK or library. Must be called inside a read action.
+   * @param models the models of the protocol followed by the protocols it inherits from.
+   */
+  public void put(@NotNull SwiftProtocolDeclaration protocol, @NotNull List<ProtocolModel> models) {
+    VirtualFile virtualFile = getLibraryFile(protocol);
+    if (virtualFile != null) {
+      getFile().put(getKey(virtualFile, protocol), getVersion(virtualFile), new ArrayList<>(models));
+    }
+  }
+
+  /**
+   * @return true when the protocol comes from an SDK or library so it can be cached.
+   */
+  public boolean isCacheable(@NotNull SwiftProtocolDeclaration protocol) {
+    return getLibraryFile(protocol) != null;
+  }
+
+  /**
+   * Writes new entries to disk.
+   */
+  public void save() {
+    ProtocolModelFile file = this.file;
+    if (file == null || !file.isModified()) {
+      return;
+    }
+    try {
+      file.save();
+    } catch (IOException e) {
+      LOG.warn("Could not save the protocol model cache", e);
+    }
+  }
+
+  /**
+   * Forgets every entry in memory and on disk, so the next protocols are read from the PSI.
+   */
+  synchronized void clear() {
+    file = null;
+    try {
+      Files.deleteIfExists(getPath());
+    } catch (IOException e) {
+      LOG.warn("Could not delete the protocol model cache", e);
+    }
+  }
+
+  @Override
+  public void dispose() {
+    save();
+  }
+
+  private ProtocolModelFile getFile() {
+    ProtocolModelFile file = this.file;
+    if (file == null) {
+      synchronized (this) {
+        file = this.file;
+        if (file == null) {
+          file = ProtocolModelFile.open(getPath());
+          this.file = file;
+        }
+      }
+    }
+    return file;
+  }
+
+  private static Path getPath() {
+    return Paths.get(PathManager.getSystemPath(), "mockGenerator", "protocol-models.bin");
+  }
+
+  @Nullable
+  private static VirtualFile getLibraryFile(SwiftProtocolDeclaration protocol) {
+    PsiFile psiFile = protocol.getContainingFile();
+    VirtualFile virtualFile = psiFile == null ? null : psiFile.getVirtualFile();
+    if (virtualFile == null || protocol.getName() == null) {
+      return null;
+    }
+    if (ProjectFileIndex.SERVICE.getInstance(protocol.getProject()).isInContent(virtualFile)) {
+      return null;
+    }
+    return virtualFile;
+  }
+
+  private static String getKey(VirtualFile file, SwiftProtocolDeclaration protocol) {
+    return file.getPath() + "#" + protocol.getName();
+  }
+
+  private static String getVersion(VirtualFile file) {
+    return file.getTimeStamp() + ":" + file.getLength();
+  }
+
+  public static long getHitCount() {
+    return hits.get();
+  }
+
+  public static String getStatistics() {
+    return "Protocol model disk cache: " + hits.get() + " hit(s), " + misses.get() + " miss(es)";
+  }
+
+  public static void resetStatistics() {
+    hits.set(0);
+    misses.set(0);
+  }
+}
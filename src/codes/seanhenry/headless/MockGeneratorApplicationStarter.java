@@ -0,0 +1,220 @@
+package codes.seanhenry.headless;
+
+import codes.seanhenry.generator.MockBatchRegenerator;
+import codes.seanhenry.util.GenerationStatistics;
+import codes.seanhenry.util.RollingHistogram;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationStarterEx;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ex.ProjectManagerEx;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regenerates mocks without a user interface so that they can be kept up to date by continuous integration.
+ * <pre>
+ * generate-mocks &lt;project&gt; [--check] [--workers=N] [--report=report.json] [file or directory...]
+ * </pre>
+ * Files and directories are relative to the project directory. The whole project is used when none are given.
+ * With {@code --check} nothing is written and the exit code is 1 when any mock is out of date.
+ */
+public class MockGeneratorApplicationStarter extends ApplicationStarterEx {
+
+  private static final int EXIT_SUCCESS = 0;
+  private static final int EXIT_FAILURE = 1;
+  private static final int EXIT_USAGE = 2;
+  private static final String USAGE = "Usage: generate-mocks <project> [--check] [--workers=N] [--report=report.json] [file or directory...]";
+
+  private String projectPath;
+  private boolean checkOnly;
+  private int workers;
+  private String reportPath;
+  private final List<String> paths = new ArrayList<>();
+
+  @Override
+  public String getCommandName() {
+    return "generate-mocks";
+  }
+
+  @Override
+  public boolean isHeadless() {
+    return true;
+  }
+
+  @Override
+  public void premain(String[] args) {
+    // the first argument is the command name
+    for (int i = 1; i < args.length; i++) {
+      String arg = args[i];
+      if (arg.equals("--check")) {
+        checkOnly = true;
+      } else if (arg.startsWith("--workers=")) {
+        workers = parseWorkers(arg.substring("--workers=".length()));
+      } else if (arg.startsWith("--report=")) {
+        reportPath = arg.substring("--report=".length());
+      } else if (projectPath == null) {
+        projectPath = arg;
+      } else {
+        paths.add(arg);
+      }
+    }
+    if (projectPath == null || workers < 0) {
+      System.err.println(USAGE);
+      System.exit(EXIT_USAGE);
+    }
+  }
+
+  private static int parseWorkers(String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  @Override
+  public void main(String[] args) {
+    int exitCode;
+    try {
+      exitCode = run();
+    } catch (Throwable e) {
+      e.printStackTrace();
+      exitCode = EXIT_FAILURE;
+    }
+    System.exit(exitCode);
+  }
+
+  private int run() throws IOException {
+    Project project = ProjectUtil.openOrImport(new File(projectPath).getAbsolutePath(), null, false);
+    if (project == null) {
+      System.err.println("Could not open project " + projectPath);
+      return EXIT_FAILURE;
+    }
+    try {
+      DumbService.getInstance(project).waitForSmartMode();
+      List<VirtualFile> roots = findRoots(project);
+      if (roots == null) {
+        return EXIT_USAGE;
+      }
+      MockBatchRegenerator regenerator = new MockBatchRegenerator(project);
+      regenerator.setCheckOnly(checkOnly);
+      regenerator.setParallelism(workers);
+      ProgressIndicator indicator = new EmptyProgressIndicator();
+      GenerationStatistics.getInstance().reset();
+      MockBatchRegenerator.Result[] result = new MockBatchRegenerator.Result[1];
+      long start = System.nanoTime();
+      ProgressManager.getInstance().runProcess(() -> {
+        List<VirtualFile> files = MockBatchRegenerator.findSwiftFiles(project, roots.toArray(new VirtualFile[roots.size()]));
+        result[0] = regenerator.regenerate(files, indicator);
+      }, indicator);
+      writeReport(createReport(result[0], System.nanoTime() - start));
+      if (0 < result[0].getErrorCount() || (checkOnly && 0 < result[0].getOutOfDateCount())) {
+        return EXIT_FAILURE;
+      }
+      return EXIT_SUCCESS;
+    } finally {
+      ProjectManagerEx.getInstanceEx().closeAndDispose(project);
+    }
+  }
+
+  private List<VirtualFile> findRoots(Project project) {
+    List<VirtualFile> roots = new ArrayList<>();
+    if (paths.isEmpty()) {
+      roots.add(project.getBaseDir());
+      return roots;
+    }
+    for (String path : paths) {
+      File file = new File(path);
+      if (!file.isAbsolute()) {
+        file = new File(project.getBasePath(), path);
+      }
+      VirtualFile root = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(file);
+      if (root == null) {
+        System.err.println("Could not find " + file.getPath());
+        return null;
+      }
+      roots.add(root);
+    }
+    return roots;
+  }
+
+  private JsonObject createReport(MockBatchRegenerator.Result result, long totalNanos) {
+    JsonObject report = new JsonObject();
+    report.addProperty("mode", checkOnly ? "check" : "generate");
+    JsonObject counts = new JsonObject();
+    counts.addProperty("files", result.getFiles().size());
+    counts.addProperty("mocks", result.getMockCount());
+    counts.addProperty("outOfDate", result.getOutOfDateCount());
+    counts.addProperty("errors", result.getErrorCount());
+    report.add("counts", counts);
+    JsonObject timings = new JsonObject();
+    timings.addProperty("analyseMillis", toMillis(result.getAnalyseNanos()));
+    timings.addProperty("applyMillis", toMillis(result.getApplyNanos()));
+    timings.addProperty("totalMillis", toMillis(totalNanos));
+    report.add("timings", timings);
+    report.add("phases", createPhases(GenerationStatistics.getInstance()));
+    JsonObject counters = new JsonObject();
+    for (GenerationStatistics.Counter counter : GenerationStatistics.Counter.values()) {
+      counters.addProperty(counter.getDescription(), GenerationStatistics.getInstance().getCount(counter));
+    }
+    report.add("counters", counters);
+    JsonArray files = new JsonArray();
+    for (MockBatchRegenerator.FileReport fileReport : result.getFiles()) {
+      JsonObject file = new JsonObject();
+      file.addProperty("path", fileReport.getPath());
+      file.addProperty("mocks", fileReport.getMocks());
+      file.addProperty("outOfDate", fileReport.isOutOfDate());
+      file.addProperty("analyseMillis", toMillis(fileReport.getAnalyseNanos()));
+      file.addProperty("applyMillis", toMillis(fileReport.getApplyNanos()));
+      JsonArray errors = new JsonArray();
+      fileReport.getErrors().forEach(errors::add);
+      file.add("errors", errors);
+      files.add(file);
+    }
+    report.add("files", files);
+    return report;
+  }
+
+  private static JsonArray createPhases(GenerationStatistics statistics) {
+    JsonArray phases = new JsonArray();
+    for (GenerationStatistics.Phase phase : GenerationStatistics.Phase.values()) {
+      RollingHistogram histogram = statistics.getHistogram(phase);
+      JsonObject timing = new JsonObject();
+      timing.addProperty("phase", phase.getDescription());
+      timing.addProperty("count", histogram.getCount());
+      timing.addProperty("totalMillis", toMillis(histogram.getTotal()));
+      timing.addProperty("p50Millis", toMillis(histogram.getPercentile(50)));
+      timing.addProperty("p90Millis", toMillis(histogram.getPercentile(90)));
+      timing.addProperty("maxMillis", toMillis(histogram.getMax()));
+      phases.add(timing);
+    }
+    return phases;
+  }
+
+  private void writeReport(JsonObject report) throws IOException {
+    String json = new GsonBuilder().setPrettyPrinting().create().toJson(report);
+    if (reportPath == null) {
+      System.out.println(json);
+    } else {
+      Files.write(new File(reportPath).toPath(), json.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
@@ -0,0 +1,152 @@
+package codes.seanhenry.index;
+
+import codes.seanhenry.generator.MockBatchRegenerator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+import com.jetbrains.swift.psi.SwiftReferenceTypeElement;
+import com.jetbrains.swift.psi.SwiftTypeDeclaration;
+import com.jetbrains.swift.psi.SwiftTypeInheritanceClause;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Maps the name of each type listed in an inheritance clause to the types in the file that list it,
+ * e.g. {@code class AnimatorMock: Animator} is stored as {@code Animator -> [AnimatorMock]}.
+ * Only names are stored, nothing is resolved while indexing, so a file is indexed again only when it changes.
+ * Types that conform through inheritance are found by looking up the names of the inheriting types in turn.
+ * As names are not resolved the results may include types that inherit from another type with the same name.
+ */
+public class ConformanceIndex extends FileBasedIndexExtension<String, List<String>> {
+
+  public static final ID<String, List<String>> NAME = ID.create("codes.seanhenry.mockgenerator.ConformanceIndex");
+
+  @NotNull
+  @Override
+  public ID<String, List<String>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<String>, FileContent> getIndexer() {
+    return inputData -> {
+      Map<String, List<String>> inheritors = new HashMap<>();
+      PsiFile psiFile = inputData.getPsiFile();
+      for (SwiftTypeDeclaration typeDeclaration : PsiTreeUtil.findChildrenOfType(psiFile, SwiftTypeDeclaration.class)) {
+        SwiftTypeInheritanceClause inheritanceClause = typeDeclaration.getTypeInheritanceClause();
+        if (inheritanceClause == null || typeDeclaration.getName() == null) {
+          continue;
+        }
+        for (SwiftReferenceTypeElement reference : inheritanceClause.getReferenceTypeElementList()) {
+          String name = reference.getName() == null ? reference.getText() : reference.getName();
+          inheritors.computeIfAbsent(name, k -> new ArrayList<>()).add(typeDeclaration.getName());
+        }
+      }
+      return inheritors;
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<String>> getValueExternalizer() {
+    return new DataExternalizer<List<String>>() {
+      @Override
+      public void save(@NotNull DataOutput out, List<String> value) throws IOException {
+        out.writeInt(value.size());
+        for (String name : value) {
+          IOUtil.writeUTF(out, name);
+        }
+      }
+
+      @Override
+      public List<String> read(@NotNull DataInput in) throws IOException {
+        int size = in.readInt();
+        List<String> value = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          value.add(IOUtil.readUTF(in));
+        }
+        return value;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return file -> "swift".equals(file.getExtension());
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * Must be called inside a read action when the index is ready.
+   * @return the names of the types which inherit from any of the named types, directly or through other types, by the files declaring them.
+   */
+  public static Map<VirtualFile, Set<String>> findInheritors(@NotNull Collection<String> names, @NotNull GlobalSearchScope scope) {
+    Map<VirtualFile, Set<String>> inheritors = new LinkedHashMap<>();
+    Set<String> visited = new HashSet<>(names);
+    Deque<String> queue = new ArrayDeque<>(names);
+    FileBasedIndex index = FileBasedIndex.getInstance();
+    while (!queue.isEmpty()) {
+      index.processValues(NAME, queue.poll(), null, (file, types) -> {
+        inheritors.computeIfAbsent(file, k -> new LinkedHashSet<>()).addAll(types);
+        for (String type : types) {
+          if (visited.add(type)) {
+            queue.add(type);
+          }
+        }
+        return true;
+      }, scope);
+    }
+    return inheritors;
+  }
+
+  /**
+   * Must be called inside a read action when the index is ready.
+   * @return the mock classes in the project which inherit from any of the named protocols, directly or through other types.
+   */
+  public static List<SwiftClassDeclaration> findMocks(@NotNull Project project, @NotNull Collection<String> protocols) {
+    List<SwiftClassDeclaration> mocks = new ArrayList<>();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    findInheritors(protocols, GlobalSearchScope.projectScope(project)).forEach((file, types) -> {
+      PsiFile psiFile = psiManager.findFile(file);
+      if (psiFile == null) {
+        return;
+      }
+      for (SwiftClassDeclaration mock : MockBatchRegenerator.findMockClasses(psiFile)) {
+        if (types.contains(mock.getName())) {
+          mocks.add(mock);
+        }
+      }
+    });
+    return mocks;
+  }
+}
@@ -0,0 +1,35 @@
+package codes.seanhenry.inspections;
+
+import codes.seanhenry.generator.MockAnalysis;
+import codes.seanhenry.generator.MockGenerator;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NotNull;
+
+public class RegenerateMockQuickFix implements LocalQuickFix {
+
+  @Nls
+  @NotNull
+  @Override
+  public String getFamilyName() {
+    return "Regenerate mock";
+  }
+
+  @Override
+  public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+    SwiftClassDeclaration classDeclaration =
+      PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), SwiftClassDeclaration.class, false);
+    if (classDeclaration == null) {
+      return;
+    }
+    MockAnalysis analysis = MockAnalysis.analyse(classDeclaration);
+    if (analysis.getErrorMessage() != null) {
+      return;
+    }
+    new MockGenerator(analysis).generate();
+  }
+}
@@ -0,0 +1,61 @@
+package codes.seanhenry.inspections;
+
+import codes.seanhenry.generator.MockFingerprint;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reports mocks whose stored fingerprint no longer matches their protocols.
+ * Only mocks marked with a fingerprint are checked so unmarked classes cost nothing.
+ */
+public class StaleMockInspection extends LocalInspectionTool {
+
+  @NotNull
+  @Override
+  public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+    return new PsiElementVisitor() {
+      @Override
+      public void visitElement(PsiElement element) {
+        if (!(element instanceof SwiftClassDeclaration)) {
+          return;
+        }
+        SwiftClassDeclaration classDeclaration = (SwiftClassDeclaration) element;
+        String stored = MockFingerprint.read(classDeclaration);
+        if (stored == null || stored.equals(MockFingerprint.compute(classDeclaration))) {
+          return;
+        }
+        PsiElement nameIdentifier = classDeclaration.getNameIdentifier();
+        holder.registerProblem(nameIdentifier == null ? classDeclaration : nameIdentifier,
+                               "Mock is out of date with its protocols",
+                               ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+                               new RegenerateMockQuickFix());
+      }
+    };
+  }
+
+  @Nls
+  @NotNull
+  @Override
+  public String getGroupDisplayName() {
+    return "Mock Generator";
+  }
+
+  @Nls
+  @NotNull
+  @Override
+  public String getDisplayName() {
+    return "Stale mock";
+  }
+
+  @NotNull
+  @Override
+  public String getShortName() {
+    return "StaleMock";
+  }
+}
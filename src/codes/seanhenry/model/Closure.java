@@ -0,0 +1,26 @@
+package codes.seanhenry.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The function type of a closure parameter.
+ */
+public class Closure {
+
+  private final List<String> parameterTypes;
+  private final boolean isOptional;
+
+  public Closure(List<String> parameterTypes, boolean isOptional) {
+    this.parameterTypes = Collections.unmodifiableList(parameterTypes);
+    this.isOptional = isOptional;
+  }
+
+  public List<String> getParameterTypes() {
+    return parameterTypes;
+  }
+
+  public boolean isOptional() {
+    return isOptional;
+  }
+}
@@ -0,0 +1,74 @@
+package codes.seanhenry.model;
+
+import codes.seanhenry.util.MethodSignature;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A method required by a protocol.
+ */
+public class Method {
+
+  private final String name;
+  private final List<Parameter> parameters;
+  private final String returnType;
+  private final String resolvedReturnType;
+  private final boolean returnsOptional;
+  private final boolean returnsClosure;
+  private final MethodSignature signature;
+
+  public Method(String name, List<Parameter> parameters) {
+    this(name, parameters, null, null, false, false);
+  }
+
+  /**
+   * @param returnType the return type as declared, or null when the method returns nothing.
+   * @param resolvedReturnType the resolved return type with any outer optional removed.
+   * @param returnsOptional true when the return type is an optional or an implicitly unwrapped optional.
+   * @param returnsClosure true when the return type is a function type.
+   */
+  public Method(String name,
+                List<Parameter> parameters,
+                String returnType,
+                String resolvedReturnType,
+                boolean returnsOptional,
+                boolean returnsClosure) {
+    this.name = name;
+    this.parameters = Collections.unmodifiableList(parameters);
+    this.returnType = returnType;
+    this.resolvedReturnType = resolvedReturnType;
+    this.returnsOptional = returnsOptional;
+    this.returnsClosure = returnsClosure;
+    this.signature = MethodSignature.parse(name, parameters.stream().map(Parameter::getText).toArray(String[]::new))
+      .withReturnType(returnType == null ? "" : returnType);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public List<Parameter> getParameters() {
+    return parameters;
+  }
+
+  public String getReturnType() {
+    return returnType;
+  }
+
+  public String getResolvedReturnType() {
+    return resolvedReturnType;
+  }
+
+  public boolean returnsOptional() {
+    return returnsOptional;
+  }
+
+  public boolean returnsClosure() {
+    return returnsClosure;
+  }
+
+  public MethodSignature getSignature() {
+    return signature;
+  }
+}
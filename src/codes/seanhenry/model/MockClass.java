@@ -0,0 +1,41 @@
+package codes.seanhenry.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything needed to render a mock, with no reference to the PSI it was built from.
+ */
+public class MockClass {
+
+  private final String scope;
+  private final List<String> associatedTypes;
+  private final List<Property> properties;
+  private final List<Method> methods;
+
+  /**
+   * @param scope the access modifier of the mock followed by a space e.g. {@code "public "}, or an empty string.
+   */
+  public MockClass(String scope, List<String> associatedTypes, List<Property> properties, List<Method> methods) {
+    this.scope = scope;
+    this.associatedTypes = Collections.unmodifiableList(associatedTypes);
+    this.properties = Collections.unmodifiableList(properties);
+    this.methods = Collections.unmodifiableList(methods);
+  }
+
+  public String getScope() {
+    return scope;
+  }
+
+  public List<String> getAssociatedTypes() {
+    return associatedTypes;
+  }
+
+  public List<Property> getProperties() {
+    return properties;
+  }
+
+  public List<Method> getMethods() {
+    return methods;
+  }
+}
@@ -0,0 +1,462 @@
+package codes.seanhenry.model;
+
+import codes.seanhenry.util.MethodSignature;
+import codes.seanhenry.util.UniqueMethodNameGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Renders a {@link MockClass} as Swift text.
+ * Members are rendered one per string with a statement or brace per line and no indentation.
+ * When type checker friendly, invoked parameters and the arguments stubbed for a closure are stored in a struct
+ * instead of a tuple and every stub and flag is declared with an explicit type and no implicitly unwrapped optionals,
+ * which are slower for the Swift compiler to type check.
+ * When thread safe, every variable of the mock is stored privately and read and written through a property
+ * which holds a single lock shared by the whole mock, so stubs may be set and recorded invocations read from any thread.
+ * A method counts and records its invocation and copies its stubs while holding the lock,
+ * then calls closures and returns after the lock is released, so a closure may call back into the mock.
+ * The lock needs {@code Foundation}.
+ */
+public class MockRenderer {
+
+  private static final String LOCK = "mockLock";
+  private static final String STORAGE_PREFIX = "_";
+  private final NamingConvention names;
+  private String scope;
+  private List<String> members;
+  private List<String> body;
+  private Method method;
+  private String uniqueMethodName;
+  private long namingNanos;
+  private Runnable cancellationCheck = () -> {};
+  private boolean isTypeCheckerFriendly;
+  private boolean isThreadSafe;
+  private boolean isLocked;
+
+  public MockRenderer() {
+    this(NamingConvention.DEFAULT);
+  }
+
+  public MockRenderer(NamingConvention names) {
+    this.names = names;
+  }
+
+  /**
+   * @return the generic parameter clause declaring the associated types e.g. {@code "<A, B>"}, or null when there are none.
+   */
+  public String renderGenericParameterClause(MockClass mock) {
+    if (mock.getAssociatedTypes().isEmpty()) {
+      return null;
+    }
+    return "<" + String.join(", ", mock.getAssociatedTypes()) + ">";
+  }
+
+  /**
+   * @param cancellationCheck called before each member is rendered, it may throw to stop rendering.
+   */
+  public void setCancellationCheck(Runnable cancellationCheck) {
+    this.cancellationCheck = cancellationCheck;
+  }
+
+  public void setTypeCheckerFriendly(boolean isTypeCheckerFriendly) {
+    this.isTypeCheckerFriendly = isTypeCheckerFriendly;
+  }
+
+  public void setThreadSafe(boolean isThreadSafe) {
+    this.isThreadSafe = isThreadSafe;
+  }
+
+  /**
+   * @return the members of the mock in order.
+   */
+  public List<String> render(MockClass mock) {
+    scope = mock.getScope();
+    members = new ArrayList<>();
+    isLocked = isThreadSafe && needsLock(mock);
+    if (isLocked) {
+      members.add("private let " + LOCK + " = NSLock()");
+    }
+    for (Property property : mock.getProperties()) {
+      cancellationCheck.run();
+      renderProperty(property);
+    }
+    renderMethods(mock.getMethods());
+    return members;
+  }
+
+  /**
+   * @return true when the last rendered mock declares a lock so its file must import {@code Foundation}.
+   */
+  public boolean requiresFoundation() {
+    return isLocked;
+  }
+
+  /**
+   * @return the time spent naming methods during the last {@link #render(MockClass)}.
+   */
+  public long getNamingNanos() {
+    return namingNanos;
+  }
+
+  private void renderProperty(Property property) {
+    String name = property.getName();
+    String invokedName = names.getInvokedPropertyName(name);
+    String stubbedName = names.getStubbedPropertyName(name);
+    String stubbedType = property.getTypeWithoutOptional() + getStubOptional();
+    if (property.hasSetter()) {
+      addVariable(invokedName, property.getTypeWithoutOptional() + "?", null);
+    }
+    addVariable(stubbedName, stubbedType, null);
+    String literal = joinWords(scope, property.getAttributes(), "var " + name + ": " + property.getType()) + " {\n";
+    String returnStatement = lock(copyFromStorage(stubbedName, stubbedType))
+                             + "return " + stubbedName + getStubUnwrap(property.isOptional()) + "\n";
+    if (property.hasSetter()) {
+      literal += "set {\n" +
+                 lock(getStorageName(invokedName) + " = newValue\n") +
+                 "}\n";
+      literal += "get {\n" +
+                 returnStatement +
+                 "}\n";
+    } else {
+      literal += returnStatement;
+    }
+    literal += "}";
+    members.add(literal);
+  }
+
+  private void renderMethods(List<Method> methods) {
+    List<UniqueMethodNameGenerator.MethodModel<MethodSignature>> models = methods
+      .stream()
+      .map(m -> new UniqueMethodNameGenerator.MethodModel<>(m.getSignature(), m.getSignature()))
+      .collect(Collectors.toList());
+    long start = System.nanoTime();
+    UniqueMethodNameGenerator<MethodSignature> methodNameGenerator = new UniqueMethodNameGenerator<>(models);
+    methodNameGenerator.generateAll();
+    namingNanos = System.nanoTime() - start;
+    for (Method method : methods) {
+      cancellationCheck.run();
+      this.method = method;
+      // the signature is used as the ID so identical methods from different protocols share a name
+      uniqueMethodName = methodNameGenerator.generate(method.getSignature());
+      body = new ArrayList<>();
+      addInvokedCheckExpression();
+      addInvocationCountExpression();
+      addInvokedParameterExpression();
+      addStubCopies();
+      lockInvocationRecording();
+      addCallToClosure();
+      addReturnExpression();
+      addInvocationCheckVariable();
+      addInvocationCountVariable();
+      addInvokedParameterVariables();
+      addClosureResultVariables();
+      addReturnVariable();
+      members.add(renderImplementedMethod());
+    }
+  }
+
+  private String renderImplementedMethod() {
+    String params = method.getParameters()
+      .stream()
+      .map(p -> p.getLabels() + ": " + joinWords(p.getAttributes(), p.getType()))
+      .collect(Collectors.joining(", "));
+    String literal = scope + "func " + method.getName() + "(" + params + ")";
+    if (method.getReturnType() != null) {
+      literal += " -> " + method.getReturnType();
+    }
+    literal += " {\n";
+    for (String statement : body) {
+      literal += statement + "\n";
+    }
+    literal += "}";
+    return literal;
+  }
+
+  private void addInvocationCheckVariable() {
+    addVariable(createInvokedVariableName(), "Bool", "false");
+  }
+
+  private void addInvocationCountVariable() {
+    if (!isThreadSafe) {
+      return;
+    }
+    addVariable(createInvocationCountName(), "Int", "0");
+  }
+
+  /**
+   * Adds a variable of the mock, which is stored privately behind a locked property when thread safe.
+   * The type is left to be inferred from the initial value unless type checker friendly or locked.
+   */
+  private void addVariable(String name, String type, String initialValue) {
+    String initialiser = initialValue == null ? "" : " = " + initialValue;
+    if (!isLocked) {
+      boolean isTypeInferred = initialValue != null && !isTypeCheckerFriendly;
+      members.add(scope + "var " + name + (isTypeInferred ? "" : ": " + type) + initialiser);
+      return;
+    }
+    String storageName = getStorageName(name);
+    members.add("private var " + storageName + ": " + type + initialiser);
+    members.add(scope + "var " + name + ": " + type + " {\n" +
+                "get {\n" +
+                LOCK + ".lock()\n" +
+                "defer {\n" +
+                LOCK + ".unlock()\n" +
+                "}\n" +
+                "return " + storageName + "\n" +
+                "}\n" +
+                "set {\n" +
+                lock(storageName + " = newValue\n") +
+                "}\n" +
+                "}");
+  }
+
+  private void addInvokedParameterVariables() {
+    List<String> parameters = getNonClosureParameters()
+      .stream()
+      .map(p -> p.getName() + ": " + p.getTypeWithoutOptional() + (p.isOptional() ? "?" : ""))
+      .collect(Collectors.toList());
+    if (parameters.isEmpty()) {
+      return;
+    } else if (isTypeCheckerFriendly) {
+      addInvokedParametersStruct(parameters);
+      return;
+    } else if (parameters.size() == 1) {
+      parameters.add("Void");
+    }
+    addVariable(createInvokedParametersName(), "(" + String.join(", ", parameters) + ")?", null);
+  }
+
+  private void addInvokedParametersStruct(List<String> parameters) {
+    String structName = createInvokedParametersStructName();
+    String struct = scope + "struct " + structName + " {\n";
+    for (String parameter : parameters) {
+      struct += scope + "let " + parameter + "\n";
+    }
+    struct += "}";
+    members.add(struct);
+    addVariable(createInvokedParametersName(), structName + "?", null);
+  }
+
+  private void addClosureResultVariables() {
+    for (Parameter parameter : getClosureParameters()) {
+      List<String> types = parameter.getClosure().getParameterTypes();
+      String name = createClosureResultName(parameter.getName());
+      if (types.isEmpty()) {
+        continue;
+      } else if (1 < types.size() && isTypeCheckerFriendly) {
+        addClosureResultStruct(name, types);
+      }
+      addVariable(name, getClosureResultType(parameter), null);
+    }
+  }
+
+  private String getClosureResultType(Parameter parameter) {
+    List<String> types = parameter.getClosure().getParameterTypes();
+    if (types.size() == 1) {
+      return types.get(0) + "?";
+    } else if (isTypeCheckerFriendly) {
+      return capitalise(createClosureResultName(parameter.getName())) + "?";
+    }
+    return "(" + String.join(", ", types) + ")?";
+  }
+
+  private void addClosureResultStruct(String name, List<String> types) {
+    String struct = scope + "struct " + capitalise(name) + " {\n";
+    for (int i = 0; i < types.size(); i++) {
+      struct += scope + "let " + createClosureArgumentName(i) + ": " + types.get(i) + "\n";
+    }
+    struct += "}";
+    members.add(struct);
+  }
+
+  private void addReturnVariable() {
+    if (method.getReturnType() == null) {
+      return;
+    }
+    addVariable(createStubbedVariableName(), getStubbedResultType(), null);
+  }
+
+  private String getStubbedResultType() {
+    String resultString = method.getResolvedReturnType();
+    if (method.returnsClosure() && !method.getReturnType().startsWith("((")) {
+      resultString = "(" + resultString + ")";
+    }
+    return resultString + getStubOptional();
+  }
+
+  private void addInvokedCheckExpression() {
+    body.add(getStorageName(createInvokedVariableName()) + " = true");
+  }
+
+  private void addInvocationCountExpression() {
+    if (isThreadSafe) {
+      body.add(getStorageName(createInvocationCountName()) + " += 1");
+    }
+  }
+
+  /**
+   * Copies the stubs into constants of the same name while locked, so closures are called and results returned unlocked.
+   */
+  private void addStubCopies() {
+    if (!isLocked) {
+      return;
+    }
+    for (Parameter parameter : getClosureParameters()) {
+      if (!parameter.getClosure().getParameterTypes().isEmpty()) {
+        body.add(copyFromStorage(createClosureResultName(parameter.getName()), getClosureResultType(parameter)).trim());
+      }
+    }
+    if (method.getReturnType() != null) {
+      body.add(copyFromStorage(createStubbedVariableName(), getStubbedResultType()).trim());
+    }
+  }
+
+  private String copyFromStorage(String name, String type) {
+    if (!isLocked) {
+      return "";
+    }
+    return "let " + name + ": " + type + " = " + getStorageName(name) + "\n";
+  }
+
+  /**
+   * Wraps everything recorded and copied so far in the method body with the mock's lock.
+   */
+  private void lockInvocationRecording() {
+    if (!isLocked) {
+      return;
+    }
+    body.add(0, LOCK + ".lock()");
+    body.add(LOCK + ".unlock()");
+  }
+
+  private void addInvokedParameterExpression() {
+    List<String> parameters = getNonClosureParameters()
+      .stream()
+      .map(Parameter::getName)
+      .collect(Collectors.toList());
+    if (parameters.isEmpty()) {
+      return;
+    } else if (isTypeCheckerFriendly) {
+      String arguments = parameters.stream().map(p -> p + ": " + p).collect(Collectors.joining(", "));
+      body.add(getStorageName(createInvokedParametersName()) + " = " + createInvokedParametersStructName() + "(" + arguments + ")");
+      return;
+    } else if (parameters.size() == 1) {
+      parameters.add("()");
+    }
+    body.add(getStorageName(createInvokedParametersName()) + " = (" + String.join(", ", parameters) + ")");
+  }
+
+  private void addCallToClosure() {
+    for (Parameter parameter : getClosureParameters()) {
+      List<String> types = parameter.getClosure().getParameterTypes();
+      int count = types.size();
+      String name = parameter.getName();
+      String optional = parameter.getClosure().isOptional() ? "?" : "";
+      String closureCall;
+      if (count == 0) {
+        closureCall = name + optional + "()";
+      } else {
+        String resultName = createClosureResultName(name);
+        String type = "";
+        if (isTypeCheckerFriendly) {
+          type = ": " + (count == 1 ? types.get(0) : capitalise(resultName));
+        }
+        closureCall = "if let result" + type + " = " + resultName + " {\n";
+        closureCall += name + optional + "(";
+        if (count == 1) {
+          closureCall += "result";
+        } else if (isTypeCheckerFriendly) {
+          closureCall += IntStream.range(0, count).mapToObj(i -> "result." + createClosureArgumentName(i)).collect(Collectors.joining(", "));
+        } else {
+          closureCall += IntStream.range(0, count).mapToObj(i -> "result." + i).collect(Collectors.joining(", "));
+        }
+        closureCall += ")\n}";
+      }
+      body.add(closureCall);
+    }
+  }
+
+  private void addReturnExpression() {
+    if (method.getReturnType() == null) {
+      return;
+    }
+    body.add("return " + createStubbedVariableName() + getStubUnwrap(method.returnsOptional()));
+  }
+
+  private String createClosureResultName(String name) {
+    return names.getStubbedClosureResultName(method.getName(), name);
+  }
+
+  private String createInvokedVariableName() {
+    return names.getInvokedMethodName(uniqueMethodName);
+  }
+
+  private String createStubbedVariableName() {
+    return names.getStubbedResultName(uniqueMethodName);
+  }
+
+  private String createInvokedParametersName() {
+    return names.getInvokedParametersName(uniqueMethodName);
+  }
+
+  private String createInvocationCountName() {
+    return names.getInvocationCountName(uniqueMethodName);
+  }
+
+  private String lock(String statements) {
+    if (!isLocked) {
+      return statements;
+    }
+    return LOCK + ".lock()\n" + statements + LOCK + ".unlock()\n";
+  }
+
+  /**
+   * @return the name of the private variable storing the named variable when locked, otherwise the name itself.
+   */
+  private String getStorageName(String name) {
+    return isLocked ? STORAGE_PREFIX + name : name;
+  }
+
+  private static boolean needsLock(MockClass mock) {
+    return !mock.getMethods().isEmpty() || !mock.getProperties().isEmpty();
+  }
+
+  private static String createClosureArgumentName(int index) {
+    return "argument" + index;
+  }
+
+  private String createInvokedParametersStructName() {
+    return capitalise(createInvokedParametersName());
+  }
+
+  private static String capitalise(String name) {
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /**
+   * Stubs are implicitly unwrapped unless type checker friendly, when they are unwrapped where they are returned.
+   */
+  private String getStubOptional() {
+    return isTypeCheckerFriendly ? "?" : "!";
+  }
+
+  private String getStubUnwrap(boolean isReturnTypeOptional) {
+    return isTypeCheckerFriendly && !isReturnTypeOptional ? "!" : "";
+  }
+
+  private List<Parameter> getClosureParameters() {
+    return method.getParameters().stream().filter(Parameter::isClosure).collect(Collectors.toList());
+  }
+
+  private List<Parameter> getNonClosureParameters() {
+    return method.getParameters().stream().filter(p -> !p.isClosure()).collect(Collectors.toList());
+  }
+
+  private static String joinWords(String... words) {
+    return Arrays.stream(words).map(String::trim).filter(w -> !w.isEmpty()).collect(Collectors.joining(" "));
+  }
+}
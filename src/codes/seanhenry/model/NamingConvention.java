@@ -0,0 +1,126 @@
+package codes.seanhenry.model;
+
+import codes.seanhenry.util.NameTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The names given to the members a mock records invocations and stubs in.
+ * Templates are compiled once and every formatted name is cached for as long as the convention is used,
+ * so regenerating mocks which share protocols only formats each name once.
+ * Instances are immutable apart from the caches and may be shared between threads.
+ */
+public class NamingConvention {
+
+  public static final String DEFAULT_INVOKED_PROPERTY = "invoked{Name}";
+  public static final String DEFAULT_STUBBED_PROPERTY = "stubbed{Name}";
+  public static final String DEFAULT_INVOKED_METHOD = "invoked{Name}";
+  public static final String DEFAULT_INVOCATION_COUNT = "invoked{Name}Count";
+  public static final String DEFAULT_INVOKED_PARAMETERS = "invoked{Name}Parameters";
+  public static final String DEFAULT_STUBBED_RESULT = "stubbed{Name}Result";
+  public static final String DEFAULT_STUBBED_CLOSURE_RESULT = "stubbed{Method}{Param}Result";
+  public static final NamingConvention DEFAULT = new NamingConvention(
+    DEFAULT_INVOKED_PROPERTY,
+    DEFAULT_STUBBED_PROPERTY,
+    DEFAULT_INVOKED_METHOD,
+    DEFAULT_INVOCATION_COUNT,
+    DEFAULT_INVOKED_PARAMETERS,
+    DEFAULT_STUBBED_RESULT,
+    DEFAULT_STUBBED_CLOSURE_RESULT
+  );
+  // names are only cached up to this many per template so a long session cannot grow without bound
+  private static final int MAX_CACHED_NAMES = 10_000;
+
+  private final NameTemplate invokedProperty;
+  private final NameTemplate stubbedProperty;
+  private final NameTemplate invokedMethod;
+  private final NameTemplate invocationCount;
+  private final NameTemplate invokedParameters;
+  private final NameTemplate stubbedResult;
+  private final NameTemplate stubbedClosureResult;
+  private final Map<String, String> invokedPropertyNames = new ConcurrentHashMap<>();
+  private final Map<String, String> stubbedPropertyNames = new ConcurrentHashMap<>();
+  private final Map<String, String> invokedMethodNames = new ConcurrentHashMap<>();
+  private final Map<String, String> invocationCountNames = new ConcurrentHashMap<>();
+  private final Map<String, String> invokedParametersNames = new ConcurrentHashMap<>();
+  private final Map<String, String> stubbedResultNames = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, String>> stubbedClosureResultNames = new ConcurrentHashMap<>();
+
+  /**
+   * Every template takes {@code {name}} except the closure result template which takes {@code {method}} and {@code {param}}.
+   * @throws IllegalArgumentException when a template is not valid, see {@link NameTemplate#compile(String, String...)}.
+   */
+  public NamingConvention(String invokedProperty,
+                          String stubbedProperty,
+                          String invokedMethod,
+                          String invocationCount,
+                          String invokedParameters,
+                          String stubbedResult,
+                          String stubbedClosureResult) {
+    this.invokedProperty = NameTemplate.compile(invokedProperty, "name");
+    this.stubbedProperty = NameTemplate.compile(stubbedProperty, "name");
+    this.invokedMethod = NameTemplate.compile(invokedMethod, "name");
+    this.invocationCount = NameTemplate.compile(invocationCount, "name");
+    this.invokedParameters = NameTemplate.compile(invokedParameters, "name");
+    this.stubbedResult = NameTemplate.compile(stubbedResult, "name");
+    this.stubbedClosureResult = NameTemplate.compile(stubbedClosureResult, "method", "param");
+  }
+
+  public String getInvokedPropertyName(String property) {
+    return getName(invokedPropertyNames, property, invokedProperty::format);
+  }
+
+  public String getStubbedPropertyName(String property) {
+    return getName(stubbedPropertyNames, property, stubbedProperty::format);
+  }
+
+  public String getInvokedMethodName(String uniqueMethodName) {
+    return getName(invokedMethodNames, uniqueMethodName, invokedMethod::format);
+  }
+
+  public String getInvocationCountName(String uniqueMethodName) {
+    return getName(invocationCountNames, uniqueMethodName, invocationCount::format);
+  }
+
+  public String getInvokedParametersName(String uniqueMethodName) {
+    return getName(invokedParametersNames, uniqueMethodName, invokedParameters::format);
+  }
+
+  public String getStubbedResultName(String uniqueMethodName) {
+    return getName(stubbedResultNames, uniqueMethodName, stubbedResult::format);
+  }
+
+  public String getStubbedClosureResultName(String method, String parameter) {
+    if (method == null) {
+      method = "";
+    }
+    Map<String, String> names = stubbedClosureResultNames.get(method);
+    if (names == null) {
+      if (MAX_CACHED_NAMES <= stubbedClosureResultNames.size()) {
+        stubbedClosureResultNames.clear();
+      }
+      names = stubbedClosureResultNames.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+    }
+    String methodName = method;
+    return getName(names, parameter, p -> stubbedClosureResult.format(methodName, p));
+  }
+
+  private static String getName(Map<String, String> cache, String key, Function<String, String> format) {
+    if (key == null) {
+      // incomplete declarations have no name
+      return "";
+    }
+    String name = cache.get(key);
+    if (name != null) {
+      return name;
+    }
+    if (MAX_CACHED_NAMES <= cache.size()) {
+      cache.clear();
+    }
+    name = format.apply(key);
+    cache.put(key, name);
+    return name;
+  }
+}
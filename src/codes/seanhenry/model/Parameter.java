@@ -0,0 +1,74 @@
+package codes.seanhenry.model;
+
+/**
+ * A method parameter.
+ */
+public class Parameter {
+
+  private final String text;
+  private final String labels;
+  private final String name;
+  private final String attributes;
+  private final String type;
+  private final String typeWithoutOptional;
+  private final boolean isOptional;
+  private final Closure closure;
+
+  /**
+   * @param text the parameter as written in the protocol e.g. {@code "forKey key: String = \"\""}.
+   * @param labels the external and internal names e.g. {@code "forKey key"}.
+   * @param name the internal name e.g. {@code "key"}.
+   * @param attributes the type attributes e.g. {@code "@escaping"}, or an empty string.
+   * @param type the resolved type.
+   * @param typeWithoutOptional the resolved type with any outer optional removed.
+   * @param isOptional true when the type is an optional or implicitly unwrapped optional.
+   * @param closure the closure type, or null when the parameter is not a closure.
+   */
+  public Parameter(String text, String labels, String name, String attributes, String type, String typeWithoutOptional,
+                   boolean isOptional, Closure closure) {
+    this.text = text;
+    this.labels = labels;
+    this.name = name;
+    this.attributes = attributes;
+    this.type = type;
+    this.typeWithoutOptional = typeWithoutOptional;
+    this.isOptional = isOptional;
+    this.closure = closure;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  public String getLabels() {
+    return labels;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getAttributes() {
+    return attributes;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getTypeWithoutOptional() {
+    return typeWithoutOptional;
+  }
+
+  public boolean isOptional() {
+    return isOptional;
+  }
+
+  public boolean isClosure() {
+    return closure != null;
+  }
+
+  public Closure getClosure() {
+    return closure;
+  }
+}
@@ -0,0 +1,53 @@
+package codes.seanhenry.model;
+
+/**
+ * A property required by a protocol.
+ */
+public class Property {
+
+  private final String name;
+  private final String attributes;
+  private final String type;
+  private final String typeWithoutOptional;
+  private final boolean isOptional;
+  private final boolean hasSetter;
+
+  /**
+   * @param attributes the declaration attributes e.g. {@code "weak"}, or an empty string.
+   * @param type the type as declared e.g. {@code "String?"}.
+   * @param typeWithoutOptional the resolved type with any outer optional removed e.g. {@code "String"}.
+   * @param isOptional true when the declared type is an optional or an implicitly unwrapped optional.
+   */
+  public Property(String name, String attributes, String type, String typeWithoutOptional, boolean isOptional, boolean hasSetter) {
+    this.name = name;
+    this.attributes = attributes;
+    this.type = type;
+    this.typeWithoutOptional = typeWithoutOptional;
+    this.isOptional = isOptional;
+    this.hasSetter = hasSetter;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getAttributes() {
+    return attributes;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getTypeWithoutOptional() {
+    return typeWithoutOptional;
+  }
+
+  public boolean isOptional() {
+    return isOptional;
+  }
+
+  public boolean hasSetter() {
+    return hasSetter;
+  }
+}
@@ -0,0 +1,117 @@
+package codes.seanhenry.model;
+
+import codes.seanhenry.util.MethodSignature;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges the members of every protocol a mock conforms to so that each requirement is mocked once.
+ * Methods are indexed by their name, labels, resolved parameter types and resolved return type,
+ * so a method is merged with an earlier identical one and methods overloaded by their return type are both kept.
+ * Properties are indexed by their name and merged when their types agree.
+ * When the types disagree, e.g. two protocols declare {@code var value} with different types,
+ * the earlier property is kept and the conflict is reported.
+ */
+public class ProtocolMemberMerger {
+
+  private static class Declaration<T> {
+    private final String protocol;
+    private final String type;
+    private T member;
+
+    private Declaration(String protocol, String type, T member) {
+      this.protocol = protocol;
+      this.type = type;
+      this.member = member;
+    }
+  }
+
+  private final Set<String> associatedTypes = new LinkedHashSet<>();
+  private final Map<String, Declaration<Property>> properties = new LinkedHashMap<>();
+  private final Map<MethodSignature, Method> methods = new LinkedHashMap<>();
+  private final List<String> conflicts = new ArrayList<>();
+  private int mergedCount;
+
+  public void add(ProtocolModel protocol) {
+    associatedTypes.addAll(protocol.getAssociatedTypes());
+    for (Property property : protocol.getProperties()) {
+      addProperty(protocol.getName(), property);
+    }
+    for (Method method : protocol.getMethods()) {
+      addMethod(method);
+    }
+  }
+
+  private void addProperty(String protocol, Property property) {
+    String type = makeType(property.getTypeWithoutOptional(), property.isOptional());
+    Declaration<Property> existing = properties.get(property.getName());
+    if (existing == null) {
+      properties.put(property.getName(), new Declaration<>(protocol, type, property));
+    } else if (existing.type.equals(type)) {
+      mergedCount++;
+      // a read only requirement is met by a read write property
+      if (property.hasSetter() && !existing.member.hasSetter()) {
+        existing.member = property;
+      }
+    } else {
+      conflicts.add(makeConflict("property '" + property.getName() + "'", "types", existing.protocol, protocol));
+    }
+  }
+
+  private void addMethod(Method method) {
+    if (methods.putIfAbsent(makeSignature(method), method) != null) {
+      mergedCount++;
+    }
+  }
+
+  private static MethodSignature makeSignature(Method method) {
+    String[] parameters = method.getParameters()
+      .stream()
+      .map(p -> p.getLabels() + ": " + p.getType())
+      .toArray(String[]::new);
+    String returnType = method.getReturnType() == null ? "" : makeType(method.getResolvedReturnType(), method.returnsOptional());
+    return MethodSignature.parse(method.getName(), parameters).withReturnType(returnType);
+  }
+
+  private static String makeType(String type, boolean isOptional) {
+    return MethodSignature.canonicaliseType(type == null ? "" : type) + (isOptional ? "?" : "");
+  }
+
+  private static String makeConflict(String member, String differences, String protocol, String otherProtocol) {
+    return "The " + member + " is declared with different " + differences + " in '" + protocol + "' and '" + otherProtocol
+           + "'. Only the one in '" + protocol + "' is mocked.";
+  }
+
+  public List<String> getAssociatedTypes() {
+    return new ArrayList<>(associatedTypes);
+  }
+
+  public List<Property> getProperties() {
+    List<Property> result = new ArrayList<>(properties.size());
+    properties.values().forEach(d -> result.add(d.member));
+    return result;
+  }
+
+  public List<Method> getMethods() {
+    return new ArrayList<>(methods.values());
+  }
+
+  /**
+   * @return a message for each member left out because it conflicts with an earlier member.
+   */
+  public List<String> getConflicts() {
+    return conflicts;
+  }
+
+  /**
+   * @return the number of members left out because an earlier member meets the same requirement.
+   */
+  public int getMergedCount() {
+    return mergedCount;
+  }
+}
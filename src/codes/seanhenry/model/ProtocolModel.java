@@ -0,0 +1,38 @@
+package codes.seanhenry.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The members declared directly in a single protocol, with no reference to the PSI they were built from.
+ */
+public class ProtocolModel {
+
+  private final String name;
+  private final List<String> associatedTypes;
+  private final List<Property> properties;
+  private final List<Method> methods;
+
+  public ProtocolModel(String name, List<String> associatedTypes, List<Property> properties, List<Method> methods) {
+    this.name = name;
+    this.associatedTypes = Collections.unmodifiableList(associatedTypes);
+    this.properties = Collections.unmodifiableList(properties);
+    this.methods = Collections.unmodifiableList(methods);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public List<String> getAssociatedTypes() {
+    return associatedTypes;
+  }
+
+  public List<Property> getProperties() {
+    return properties;
+  }
+
+  public List<Method> getMethods() {
+    return methods;
+  }
+}
@@ -0,0 +1,329 @@
+package codes.seanhenry.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * A compact binary file of protocol models keyed by a string, such as the file and name of an SDK protocol.
+ * Each entry has a version, e.g. the modification stamp of the file the protocol was read from, and is ignored when the version differs.
+ * The file is memory mapped and only its index is read when it is opened; an entry is decoded when it is first asked for.
+ * New entries are kept in memory until {@link #save()} rewrites the file, copying unchanged entries without decoding them.
+ * A missing, corrupt or out of date file is treated as empty.
+ */
+public class ProtocolModelFile {
+
+  private static final int MAGIC = 0x4D4B4750;
+  // change when the format or the models change so old files are ignored
+  private static final int FORMAT_VERSION = 1;
+
+  private static class IndexEntry {
+    private final String version;
+    private final int offset;
+    private final int length;
+
+    private IndexEntry(String version, int offset, int length) {
+      this.version = version;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private static class PendingEntry {
+    private final String version;
+    private final byte[] data;
+
+    private PendingEntry(String version, byte[] data) {
+      this.version = version;
+      this.data = data;
+    }
+  }
+
+  private final Path path;
+  private ByteBuffer buffer;
+  private Map<String, IndexEntry> index = new HashMap<>();
+  private final Map<String, PendingEntry> pending = new LinkedHashMap<>();
+
+  private ProtocolModelFile(Path path) {
+    this.path = path;
+  }
+
+  public static ProtocolModelFile open(Path path) {
+    ProtocolModelFile file = new ProtocolModelFile(path);
+    file.map();
+    return file;
+  }
+
+  private void map() {
+    buffer = null;
+    index = new HashMap<>();
+    if (!Files.isRegularFile(path)) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      index = readIndex(mapped);
+      buffer = mapped;
+    } catch (IOException | RuntimeException e) {
+      index = new HashMap<>();
+    }
+  }
+
+  private static Map<String, IndexEntry> readIndex(ByteBuffer buffer) {
+    Map<String, IndexEntry> index = new HashMap<>();
+    if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+      return index;
+    }
+    int count = buffer.getInt();
+    for (int i = 0; i < count; i++) {
+      String key = readString(buffer);
+      String version = readString(buffer);
+      int offset = buffer.getInt();
+      int length = buffer.getInt();
+      if (offset < 0 || length < 0 || buffer.capacity() < (long) offset + length) {
+        throw new IllegalStateException("Corrupt protocol model file");
+      }
+      index.put(key, new IndexEntry(version, offset, length));
+    }
+    return index;
+  }
+
+  /**
+   * @return the models stored for the key, or null when there are none for this version.
+   */
+  public synchronized List<ProtocolModel> get(String key, String version) {
+    PendingEntry entry = pending.get(key);
+    if (entry != null) {
+      return entry.version.equals(version) ? readModels(ByteBuffer.wrap(entry.data)) : null;
+    }
+    IndexEntry indexEntry = index.get(key);
+    if (indexEntry == null || !indexEntry.version.equals(version)) {
+      return null;
+    }
+    try {
+      ByteBuffer data = buffer.duplicate();
+      data.position(indexEntry.offset);
+      data.limit(indexEntry.offset + indexEntry.length);
+      return readModels(data);
+    } catch (RuntimeException e) {
+      // a corrupt entry is a cache miss
+      return null;
+    }
+  }
+
+  public synchronized void put(String key, String version, List<ProtocolModel> models) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      writeModels(output, models);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    pending.put(key, new PendingEntry(version, bytes.toByteArray()));
+  }
+
+  public synchronized boolean isModified() {
+    return !pending.isEmpty();
+  }
+
+  public synchronized int size() {
+    Set<String> keys = new HashSet<>(index.keySet());
+    keys.addAll(pending.keySet());
+    return keys.size();
+  }
+
+  /**
+   * Writes every entry to a temporary file which then replaces the file.
+   */
+  public synchronized void save() throws IOException {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Map<String, String> versions = new LinkedHashMap<>();
+    List<byte[]> data = new ArrayList<>();
+    index.forEach((key, entry) -> {
+      if (!pending.containsKey(key)) {
+        versions.put(key, entry.version);
+        byte[] bytes = new byte[entry.length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(entry.offset);
+        source.get(bytes);
+        data.add(bytes);
+      }
+    });
+    pending.forEach((key, entry) -> {
+      versions.put(key, entry.version);
+      data.add(entry.data);
+    });
+    ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(indexBytes)) {
+      output.writeInt(MAGIC);
+      output.writeInt(FORMAT_VERSION);
+      output.writeInt(versions.size());
+      int headerLength = 12;
+      for (String key : versions.keySet()) {
+        headerLength += 16 + utf8(key).length + utf8(versions.get(key)).length;
+      }
+      int offset = headerLength;
+      int i = 0;
+      for (Map.Entry<String, String> entry : versions.entrySet()) {
+        writeString(output, entry.getKey());
+        writeString(output, entry.getValue());
+        output.writeInt(offset);
+        output.writeInt(data.get(i).length);
+        offset += data.get(i).length;
+        i++;
+      }
+    }
+    Files.createDirectories(path.toAbsolutePath().getParent());
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (OutputStream output = Files.newOutputStream(temporary)) {
+      indexBytes.writeTo(output);
+      for (byte[] bytes : data) {
+        output.write(bytes);
+      }
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    pending.clear();
+    map();
+  }
+
+  private static void writeModels(DataOutputStream output, List<ProtocolModel> models) throws IOException {
+    output.writeInt(models.size());
+    for (ProtocolModel model : models) {
+      writeString(output, model.getName());
+      writeStrings(output, model.getAssociatedTypes());
+      output.writeInt(model.getProperties().size());
+      for (Property property : model.getProperties()) {
+        writeString(output, property.getName());
+        writeString(output, property.getAttributes());
+        writeString(output, property.getType());
+        writeString(output, property.getTypeWithoutOptional());
+        output.writeBoolean(property.isOptional());
+        output.writeBoolean(property.hasSetter());
+      }
+      output.writeInt(model.getMethods().size());
+      for (Method method : model.getMethods()) {
+        writeString(output, method.getName());
+        output.writeInt(method.getParameters().size());
+        for (Parameter parameter : method.getParameters()) {
+          writeParameter(output, parameter);
+        }
+        writeString(output, method.getReturnType());
+        writeString(output, method.getResolvedReturnType());
+        output.writeBoolean(method.returnsOptional());
+        output.writeBoolean(method.returnsClosure());
+      }
+    }
+  }
+
+  private static void writeParameter(DataOutputStream output, Parameter parameter) throws IOException {
+    writeString(output, parameter.getText());
+    writeString(output, parameter.getLabels());
+    writeString(output, parameter.getName());
+    writeString(output, parameter.getAttributes());
+    writeString(output, parameter.getType());
+    writeString(output, parameter.getTypeWithoutOptional());
+    output.writeBoolean(parameter.isOptional());
+    output.writeBoolean(parameter.isClosure());
+    if (parameter.isClosure()) {
+      writeStrings(output, parameter.getClosure().getParameterTypes());
+      output.writeBoolean(parameter.getClosure().isOptional());
+    }
+  }
+
+  private static List<ProtocolModel> readModels(ByteBuffer input) {
+    int count = input.getInt();
+    List<ProtocolModel> models = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String name = readString(input);
+      List<String> associatedTypes = readStrings(input);
+      int propertyCount = input.getInt();
+      List<Property> properties = new ArrayList<>(propertyCount);
+      for (int j = 0; j < propertyCount; j++) {
+        properties.add(new Property(readString(input), readString(input), readString(input), readString(input),
+                                    readBoolean(input), readBoolean(input)));
+      }
+      int methodCount = input.getInt();
+      List<Method> methods = new ArrayList<>(methodCount);
+      for (int j = 0; j < methodCount; j++) {
+        String methodName = readString(input);
+        int parameterCount = input.getInt();
+        List<Parameter> parameters = new ArrayList<>(parameterCount);
+        for (int k = 0; k < parameterCount; k++) {
+          parameters.add(readParameter(input));
+        }
+        methods.add(new Method(methodName, parameters, readString(input), readString(input), readBoolean(input), readBoolean(input)));
+      }
+      models.add(new ProtocolModel(name, associatedTypes, properties, methods));
+    }
+    return models;
+  }
+
+  private static Parameter readParameter(ByteBuffer input) {
+    String text = readString(input);
+    String labels = readString(input);
+    String name = readString(input);
+    String attributes = readString(input);
+    String type = readString(input);
+    String typeWithoutOptional = readString(input);
+    boolean isOptional = readBoolean(input);
+    Closure closure = null;
+    if (readBoolean(input)) {
+      closure = new Closure(readStrings(input), readBoolean(input));
+    }
+    return new Parameter(text, labels, name, attributes, type, typeWithoutOptional, isOptional, closure);
+  }
+
+  private static void writeStrings(DataOutputStream output, List<String> strings) throws IOException {
+    output.writeInt(strings.size());
+    for (String string : strings) {
+      writeString(output, string);
+    }
+  }
+
+  private static List<String> readStrings(ByteBuffer input) {
+    int count = input.getInt();
+    List<String> strings = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      strings.add(readString(input));
+    }
+    return strings;
+  }
+
+  /**
+   * Strings are written as their UTF-8 length and bytes, with a length of -1 for null.
+   */
+  private static void writeString(DataOutputStream output, String string) throws IOException {
+    if (string == null) {
+      output.writeInt(-1);
+      return;
+    }
+    byte[] bytes = utf8(string);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(ByteBuffer input) {
+    int length = input.getInt();
+    if (length == -1) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static boolean readBoolean(ByteBuffer input) {
+    return input.get() != 0;
+  }
+
+  private static byte[] utf8(String string) {
+    return string == null ? new byte[0] : string.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,145 @@
+package codes.seanhenry.settings;
+
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.options.ConfigurationException;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+
+public class MockGeneratorConfigurable implements Configurable {
+
+  private final MockGeneratorSettings settings;
+  private JCheckBox writeFingerprintCheckBox;
+  private JCheckBox typeCheckerFriendlyCheckBox;
+  private JCheckBox threadSafeCheckBox;
+  private JCheckBox autoRegenerateCheckBox;
+  private JBTextField invokedPropertyField;
+  private JBTextField stubbedPropertyField;
+  private JBTextField invokedMethodField;
+  private JBTextField invocationCountField;
+  private JBTextField invokedParametersField;
+  private JBTextField stubbedResultField;
+  private JBTextField stubbedClosureResultField;
+
+  public MockGeneratorConfigurable(Project project) {
+    settings = MockGeneratorSettings.getInstance(project);
+  }
+
+  @Nls
+  @Override
+  public String getDisplayName() {
+    return "Mock Generator";
+  }
+
+  @Nullable
+  @Override
+  public String getHelpTopic() {
+    return null;
+  }
+
+  @Nullable
+  @Override
+  public JComponent createComponent() {
+    writeFingerprintCheckBox = new JCheckBox("Mark generated mocks with a fingerprint of their protocols to detect stale mocks");
+    typeCheckerFriendlyCheckBox = new JCheckBox("Generate final mocks which are faster to compile, with parameter structs and explicit types");
+    threadSafeCheckBox = new JCheckBox("Generate thread safe mocks which count invocations and can be called from any thread");
+    autoRegenerateCheckBox = new JCheckBox("Regenerate mocks automatically when their protocols change");
+    invokedPropertyField = new JBTextField();
+    stubbedPropertyField = new JBTextField();
+    invokedMethodField = new JBTextField();
+    invocationCountField = new JBTextField();
+    invokedParametersField = new JBTextField();
+    stubbedResultField = new JBTextField();
+    stubbedClosureResultField = new JBTextField();
+    JPanel form = FormBuilder.createFormBuilder()
+      .addComponent(writeFingerprintCheckBox)
+      .addComponent(typeCheckerFriendlyCheckBox)
+      .addComponent(threadSafeCheckBox)
+      .addComponent(autoRegenerateCheckBox)
+      .addSeparator()
+      .addComponent(new JLabel("Naming templates. {name} inserts a name and {Name} inserts it capitalised."))
+      .addLabeledComponent("Property set:", invokedPropertyField)
+      .addLabeledComponent("Property stub:", stubbedPropertyField)
+      .addLabeledComponent("Method invoked:", invokedMethodField)
+      .addLabeledComponent("Method invocation count:", invocationCountField)
+      .addLabeledComponent("Method parameters:", invokedParametersField)
+      .addLabeledComponent("Method stub:", stubbedResultField)
+      .addLabeledComponent("Closure parameters stub ({method} and {param}):", stubbedClosureResultField)
+      .getPanel();
+    JPanel panel = new JPanel(new BorderLayout());
+    panel.add(form, BorderLayout.NORTH);
+    reset();
+    return panel;
+  }
+
+  @Override
+  public boolean isModified() {
+    MockGeneratorSettings.State state = settings.getState();
+    return writeFingerprintCheckBox.isSelected() != settings.isWriteFingerprint()
+           || typeCheckerFriendlyCheckBox.isSelected() != settings.isTypeCheckerFriendly()
+           || threadSafeCheckBox.isSelected() != settings.isThreadSafe()
+           || autoRegenerateCheckBox.isSelected() != settings.isAutoRegenerate()
+           || !invokedPropertyField.getText().equals(state.invokedPropertyTemplate)
+           || !stubbedPropertyField.getText().equals(state.stubbedPropertyTemplate)
+           || !invokedMethodField.getText().equals(state.invokedMethodTemplate)
+           || !invocationCountField.getText().equals(state.invocationCountTemplate)
+           || !invokedParametersField.getText().equals(state.invokedParametersTemplate)
+           || !stubbedResultField.getText().equals(state.stubbedResultTemplate)
+           || !stubbedClosureResultField.getText().equals(state.stubbedClosureResultTemplate);
+  }
+
+  @Override
+  public void apply() throws ConfigurationException {
+    try {
+      settings.setNamingConvention(invokedPropertyField.getText().trim(),
+                                   stubbedPropertyField.getText().trim(),
+                                   invokedMethodField.getText().trim(),
+                                   invocationCountField.getText().trim(),
+                                   invokedParametersField.getText().trim(),
+                                   stubbedResultField.getText().trim(),
+                                   stubbedClosureResultField.getText().trim());
+    } catch (IllegalArgumentException e) {
+      throw new ConfigurationException(e.getMessage(), "Invalid Naming Template");
+    }
+    settings.setWriteFingerprint(writeFingerprintCheckBox.isSelected());
+    settings.setTypeCheckerFriendly(typeCheckerFriendlyCheckBox.isSelected());
+    settings.setThreadSafe(threadSafeCheckBox.isSelected());
+    settings.setAutoRegenerate(autoRegenerateCheckBox.isSelected());
+  }
+
+  @Override
+  public void reset() {
+    MockGeneratorSettings.State state = settings.getState();
+    writeFingerprintCheckBox.setSelected(settings.isWriteFingerprint());
+    typeCheckerFriendlyCheckBox.setSelected(settings.isTypeCheckerFriendly());
+    threadSafeCheckBox.setSelected(settings.isThreadSafe());
+    autoRegenerateCheckBox.setSelected(settings.isAutoRegenerate());
+    invokedPropertyField.setText(state.invokedPropertyTemplate);
+    stubbedPropertyField.setText(state.stubbedPropertyTemplate);
+    invokedMethodField.setText(state.invokedMethodTemplate);
+    invocationCountField.setText(state.invocationCountTemplate);
+    invokedParametersField.setText(state.invokedParametersTemplate);
+    stubbedResultField.setText(state.stubbedResultTemplate);
+    stubbedClosureResultField.setText(state.stubbedClosureResultTemplate);
+  }
+
+  @Override
+  public void disposeUIResources() {
+    writeFingerprintCheckBox = null;
+    typeCheckerFriendlyCheckBox = null;
+    threadSafeCheckBox = null;
+    autoRegenerateCheckBox = null;
+    invokedPropertyField = null;
+    stubbedPropertyField = null;
+    invokedMethodField = null;
+    invocationCountField = null;
+    invokedParametersField = null;
+    stubbedResultField = null;
+    stubbedClosureResultField = null;
+  }
+}
@@ -0,0 +1,151 @@
+package codes.seanhenry.settings;
+
+import codes.seanhenry.model.NamingConvention;
+import com.intellij.openapi.components.*;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Project settings for mock generation. Stored in the project so they can be shared with the team.
+ */
+@State(name = "MockGeneratorSettings", storages = @Storage("mockGenerator.xml"))
+public class MockGeneratorSettings implements PersistentStateComponent<MockGeneratorSettings.State> {
+
+  private static final Logger LOG = Logger.getInstance(MockGeneratorSettings.class);
+
+  public static class State {
+    public boolean writeFingerprint = false;
+    public boolean typeCheckerFriendly = false;
+    public boolean threadSafe = false;
+    public boolean autoRegenerate = false;
+    public String invokedPropertyTemplate = NamingConvention.DEFAULT_INVOKED_PROPERTY;
+    public String stubbedPropertyTemplate = NamingConvention.DEFAULT_STUBBED_PROPERTY;
+    public String invokedMethodTemplate = NamingConvention.DEFAULT_INVOKED_METHOD;
+    public String invocationCountTemplate = NamingConvention.DEFAULT_INVOCATION_COUNT;
+    public String invokedParametersTemplate = NamingConvention.DEFAULT_INVOKED_PARAMETERS;
+    public String stubbedResultTemplate = NamingConvention.DEFAULT_STUBBED_RESULT;
+    public String stubbedClosureResultTemplate = NamingConvention.DEFAULT_STUBBED_CLOSURE_RESULT;
+  }
+
+  private State state = new State();
+  private volatile NamingConvention namingConvention;
+
+  public static MockGeneratorSettings getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, MockGeneratorSettings.class);
+  }
+
+  @NotNull
+  @Override
+  public State getState() {
+    return state;
+  }
+
+  @Override
+  public void loadState(State state) {
+    this.state = state;
+    namingConvention = null;
+  }
+
+  /**
+   * @return true when generated mocks are marked with a fingerprint of their protocols, see {@link codes.seanhenry.generator.MockFingerprint}.
+   */
+  public boolean isWriteFingerprint() {
+    return state.writeFingerprint;
+  }
+
+  public void setWriteFingerprint(boolean writeFingerprint) {
+    state.writeFingerprint = writeFingerprint;
+  }
+
+  /**
+   * @return true when mocks are generated to be quick to type check, see {@link codes.seanhenry.model.MockRenderer}.
+   */
+  public boolean isTypeCheckerFriendly() {
+    return state.typeCheckerFriendly;
+  }
+
+  public void setTypeCheckerFriendly(boolean typeCheckerFriendly) {
+    state.typeCheckerFriendly = typeCheckerFriendly;
+  }
+
+  /**
+   * @return true when mocks read and write their variables while holding a lock so they can be used from any thread.
+   */
+  public boolean isThreadSafe() {
+    return state.threadSafe;
+  }
+
+  public void setThreadSafe(boolean threadSafe) {
+    state.threadSafe = threadSafe;
+  }
+
+  /**
+   * @return true when mocks are regenerated automatically when their protocols change, see {@link codes.seanhenry.generator.MockAutoRegenerator}.
+   */
+  public boolean isAutoRegenerate() {
+    return state.autoRegenerate;
+  }
+
+  public void setAutoRegenerate(boolean autoRegenerate) {
+    state.autoRegenerate = autoRegenerate;
+  }
+
+  /**
+   * The templates are compiled once and the convention is kept, with the names it has formatted, until they change.
+   * @return the naming convention from the templates, or the default convention when a stored template is not valid.
+   */
+  @NotNull
+  public NamingConvention getNamingConvention() {
+    NamingConvention convention = namingConvention;
+    if (convention == null) {
+      try {
+        convention = createNamingConvention(state);
+      } catch (IllegalArgumentException e) {
+        LOG.warn("Using the default mock naming templates. " + e.getMessage());
+        convention = NamingConvention.DEFAULT;
+      }
+      namingConvention = convention;
+    }
+    return convention;
+  }
+
+  /**
+   * @throws IllegalArgumentException when a template is not valid.
+   */
+  public void setNamingConvention(String invokedProperty,
+                                  String stubbedProperty,
+                                  String invokedMethod,
+                                  String invocationCount,
+                                  String invokedParameters,
+                                  String stubbedResult,
+                                  String stubbedClosureResult) {
+    State newState = new State();
+    newState.writeFingerprint = state.writeFingerprint;
+    newState.typeCheckerFriendly = state.typeCheckerFriendly;
+    newState.threadSafe = state.threadSafe;
+    newState.autoRegenerate = state.autoRegenerate;
+    newState.invokedPropertyTemplate = invokedProperty;
+    newState.stubbedPropertyTemplate = stubbedProperty;
+    newState.invokedMethodTemplate = invokedMethod;
+    newState.invocationCountTemplate = invocationCount;
+    newState.invokedParametersTemplate = invokedParameters;
+    newState.stubbedResultTemplate = stubbedResult;
+    newState.stubbedClosureResultTemplate = stubbedClosureResult;
+    NamingConvention convention = createNamingConvention(newState);
+    state = newState;
+    namingConvention = convention;
+  }
+
+  private static NamingConvention createNamingConvention(State state) {
+    return new NamingConvention(
+      state.invokedPropertyTemplate,
+      state.stubbedPropertyTemplate,
+      state.invokedMethodTemplate,
+      state.invocationCountTemplate,
+      state.invokedParametersTemplate,
+      state.stubbedResultTemplate,
+      state.stubbedClosureResultTemplate
+    );
+  }
+}
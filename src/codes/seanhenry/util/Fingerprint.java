@@ -0,0 +1,47 @@
+package codes.seanhenry.util;
+
+/**
+ * A 64 bit FNV-1a hash which is stable between sessions so it can be stored in source files.
+ */
+public class Fingerprint {
+
+  private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long PRIME = 0x100000001b3L;
+
+  private long hash = OFFSET_BASIS;
+
+  public Fingerprint add(CharSequence text) {
+    for (int i = 0; i < text.length(); i++) {
+      add(text.charAt(i));
+    }
+    // separates consecutive strings so "ab", "c" differs from "a", "bc"
+    return add('\u0000');
+  }
+
+  public Fingerprint add(long value) {
+    for (int i = 0; i < 8; i++) {
+      hash = (hash ^ (value & 0xff)) * PRIME;
+      value >>>= 8;
+    }
+    return this;
+  }
+
+  private Fingerprint add(char c) {
+    hash = (hash ^ (c & 0xff)) * PRIME;
+    hash = (hash ^ (c >>> 8)) * PRIME;
+    return this;
+  }
+
+  public long getHash() {
+    return hash;
+  }
+
+  public static String toHex(long hash) {
+    String hex = Long.toHexString(hash);
+    StringBuilder builder = new StringBuilder(16);
+    for (int i = hex.length(); i < 16; i++) {
+      builder.append('0');
+    }
+    return builder.append(hex).toString();
+  }
+}
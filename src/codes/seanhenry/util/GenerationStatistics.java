@@ -0,0 +1,135 @@
+package codes.seanhenry.util;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Times each phase of mock generation and counts the work done, for the lifetime of the session.
+ * Phase times are kept in {@link RollingHistogram}s so slow generations show up in the percentiles.
+ */
+public class GenerationStatistics {
+
+  public enum Phase {
+    RESOLVE_PROTOCOLS("Resolve protocols"),
+    GATHER_MEMBERS("Gather members"),
+    BUILD_MODEL("Build model"),
+    NAME_METHODS("Name methods"),
+    RENDER("Render"),
+    APPLY("Apply"),
+    REFORMAT("Reformat"),
+    TOTAL("Intention total");
+
+    private final String description;
+
+    Phase(String description) {
+      this.description = description;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+  }
+
+  public enum Counter {
+    RESOLVE_CALLS("resolve() calls"),
+    PSI_ELEMENTS_CREATED("PSI elements created"),
+    MEMBERS_EMITTED("members emitted"),
+    CHARACTERS_WRITTEN("characters written");
+
+    private final String description;
+
+    Counter(String description) {
+      this.description = description;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+  }
+
+  private static final int HISTOGRAM_CAPACITY = 1000;
+  private static final GenerationStatistics instance = new GenerationStatistics();
+
+  private final Map<Phase, RollingHistogram> histograms = new EnumMap<>(Phase.class);
+  private final Map<Counter, AtomicLong> counters = new EnumMap<>(Counter.class);
+
+  GenerationStatistics() {
+    for (Phase phase : Phase.values()) {
+      histograms.put(phase, new RollingHistogram(HISTOGRAM_CAPACITY));
+    }
+    for (Counter counter : Counter.values()) {
+      counters.put(counter, new AtomicLong());
+    }
+  }
+
+  public static GenerationStatistics getInstance() {
+    return instance;
+  }
+
+  public void record(Phase phase, long nanos) {
+    histograms.get(phase).add(nanos);
+  }
+
+  public <T> T measure(Phase phase, Supplier<T> supplier) {
+    long start = System.nanoTime();
+    try {
+      return supplier.get();
+    } finally {
+      record(phase, System.nanoTime() - start);
+    }
+  }
+
+  public void measure(Phase phase, Runnable runnable) {
+    measure(phase, () -> {
+      runnable.run();
+      return null;
+    });
+  }
+
+  public void increment(Counter counter, long amount) {
+    counters.get(counter).addAndGet(amount);
+  }
+
+  public RollingHistogram getHistogram(Phase phase) {
+    return histograms.get(phase);
+  }
+
+  public long getCount(Counter counter) {
+    return counters.get(counter).get();
+  }
+
+  public void reset() {
+    histograms.values().forEach(RollingHistogram::clear);
+    counters.values().forEach(c -> c.set(0));
+  }
+
+  /**
+   * @return a table of phase times in milliseconds followed by the counters.
+   */
+  public String getReport() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(String.format(Locale.ROOT, "%-18s %8s %10s %8s %8s %8s %8s%n", "Phase", "Count", "Total ms", "p50", "p90", "p99", "Max"));
+    for (Phase phase : Phase.values()) {
+      RollingHistogram histogram = histograms.get(phase);
+      builder.append(String.format(Locale.ROOT, "%-18s %8d %10s %8s %8s %8s %8s%n",
+                                   phase.description,
+                                   histogram.getCount(),
+                                   toMillis(histogram.getTotal()),
+                                   toMillis(histogram.getPercentile(50)),
+                                   toMillis(histogram.getPercentile(90)),
+                                   toMillis(histogram.getPercentile(99)),
+                                   toMillis(histogram.getMax())));
+    }
+    for (Counter counter : Counter.values()) {
+      builder.append(counters.get(counter).get()).append(' ').append(counter.description).append('\n');
+    }
+    return builder.toString();
+  }
+
+  private static String toMillis(long nanos) {
+    return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+  }
+}
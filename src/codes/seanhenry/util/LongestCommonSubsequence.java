@@ -0,0 +1,58 @@
+package codes.seanhenry.util;
+
+import java.util.*;
+
+/**
+ * Finds the longest common subsequence of two lists with the Hunt-Szymanski algorithm,
+ * which only visits pairs of equal elements so it is fast when few elements are repeated.
+ */
+public class LongestCommonSubsequence {
+
+  private LongestCommonSubsequence() {
+  }
+
+  /**
+   * @return for each element of {@code target} the index of the element of {@code source} it is matched with, or -1.
+   * Matched indices increase so matching preserves the order of both lists.
+   */
+  public static <T> int[] match(List<T> source, List<T> target) {
+    Map<T, List<Integer>> indices = new HashMap<>();
+    for (int i = 0; i < source.size(); i++) {
+      indices.computeIfAbsent(source.get(i), k -> new ArrayList<>()).add(i);
+    }
+    // the chain ending in the smallest source index for each length, as in patience sorting
+    List<Integer> tailSources = new ArrayList<>();
+    List<Integer> tailNodes = new ArrayList<>();
+    List<int[]> nodes = new ArrayList<>();
+    for (int t = 0; t < target.size(); t++) {
+      List<Integer> candidates = indices.get(target.get(t));
+      if (candidates == null) {
+        continue;
+      }
+      // descending so that one target element extends a chain at most once
+      for (int c = candidates.size() - 1; 0 <= c; c--) {
+        int s = candidates.get(c);
+        int length = Collections.binarySearch(tailSources, s);
+        if (0 <= length) {
+          continue;
+        }
+        length = -length - 1;
+        int previous = length == 0 ? -1 : tailNodes.get(length - 1);
+        nodes.add(new int[]{t, s, previous});
+        if (length == tailSources.size()) {
+          tailSources.add(s);
+          tailNodes.add(nodes.size() - 1);
+        } else {
+          tailSources.set(length, s);
+          tailNodes.set(length, nodes.size() - 1);
+        }
+      }
+    }
+    int[] matches = new int[target.size()];
+    Arrays.fill(matches, -1);
+    for (int n = tailNodes.isEmpty() ? -1 : tailNodes.get(tailNodes.size() - 1); n != -1; n = nodes.get(n)[2]) {
+      matches[nodes.get(n)[0]] = nodes.get(n)[1];
+    }
+    return matches;
+  }
+}
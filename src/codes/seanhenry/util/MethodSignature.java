@@ -0,0 +1,279 @@
+package codes.seanhenry.util;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An immutable method name with its parameter labels and types, and optionally its return type.
+ * Names, labels and types are interned so equal signatures share their strings and mostly compare by identity.
+ * The strings are held weakly so they are released with the last signature using them.
+ * Types are in a canonical form
+ * where {@code Dictionary<K, V>}, {@code Array<T>}, {@code Optional<T>} and {@code ImplicitlyUnwrappedOptional<T>}
+ * are written as {@code [K:V]}, {@code [T]}, {@code T?} and {@code T!} without whitespace.
+ */
+public final class MethodSignature {
+
+  private static final Map<String, WeakReference<String>> internedStrings = new WeakHashMap<>();
+
+  private final String methodName;
+  private final String[] labels;
+  private final String[] types;
+  private final String returnType;
+  private final int hash;
+
+  private MethodSignature(String methodName, String[] labels, String[] types, String returnType) {
+    this.methodName = intern(methodName);
+    this.labels = labels;
+    this.types = types;
+    this.returnType = intern(returnType);
+    int hash = this.methodName.hashCode();
+    hash = 31 * hash + Arrays.hashCode(labels);
+    hash = 31 * hash + Arrays.hashCode(types);
+    hash = 31 * hash + returnType.hashCode();
+    this.hash = hash;
+  }
+
+  /**
+   * @param parameters parameters as written in a declaration e.g. {@code "forKey key: String = \"\""}.
+   */
+  public static MethodSignature parse(String methodName, String... parameters) {
+    String[] labels = new String[parameters.length];
+    String[] types = new String[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      String parameter = parameters[i];
+      int colon = indexOfTopLevel(parameter, ':', 0);
+      String label = colon == -1 ? parameter : parameter.substring(0, colon);
+      labels[i] = intern(parseLabel(label));
+      if (colon == -1) {
+        types[i] = intern("");
+        continue;
+      }
+      int defaultValue = indexOfTopLevel(parameter, '=', colon + 1);
+      String type = defaultValue == -1 ? parameter.substring(colon + 1) : parameter.substring(colon + 1, defaultValue);
+      types[i] = intern(canonicaliseType(type));
+    }
+    return new MethodSignature(methodName, labels, types, "");
+  }
+
+  /**
+   * @param returnType the return type as written in a declaration, or an empty string when the method returns nothing.
+   * @return this signature with the return type, so methods overloaded by their return type alone are told apart.
+   */
+  public MethodSignature withReturnType(String returnType) {
+    return new MethodSignature(methodName, labels, types, canonicaliseType(returnType));
+  }
+
+  private static String parseLabel(String label) {
+    String trimmed = label.trim();
+    if (trimmed.isEmpty()) {
+      return "";
+    }
+    return trimmed.split("\\s+")[0];
+  }
+
+  private static String intern(String string) {
+    synchronized (internedStrings) {
+      WeakReference<String> reference = internedStrings.get(string);
+      String interned = reference == null ? null : reference.get();
+      if (interned == null) {
+        internedStrings.put(string, new WeakReference<>(string));
+        return string;
+      }
+      return interned;
+    }
+  }
+
+  /**
+   * @return the type in canonical form.
+   */
+  public static String canonicaliseType(String type) {
+    return canonicalise(removeWhitespace(type));
+  }
+
+  private static String canonicalise(String type) {
+    StringBuilder builder = new StringBuilder(type.length());
+    int i = 0;
+    while (i < type.length()) {
+      char c = type.charAt(i);
+      if (!Character.isJavaIdentifierStart(c)) {
+        builder.append(c);
+        i++;
+        continue;
+      }
+      int end = i;
+      while (end < type.length() && (Character.isJavaIdentifierPart(type.charAt(end)) || type.charAt(end) == '.')) {
+        end++;
+      }
+      String identifier = type.substring(i, end);
+      int close = end < type.length() && type.charAt(end) == '<' ? findClosingAngleBracket(type, end) : -1;
+      if (close == -1 || !isSugarable(identifier)) {
+        builder.append(identifier);
+        i = end;
+        continue;
+      }
+      List<String> arguments = splitTopLevel(type.substring(end + 1, close));
+      for (int a = 0; a < arguments.size(); a++) {
+        arguments.set(a, canonicalise(arguments.get(a)));
+      }
+      builder.append(sugar(identifier, arguments, type.substring(i, close + 1)));
+      i = close + 1;
+    }
+    return builder.toString();
+  }
+
+  private static boolean isSugarable(String identifier) {
+    switch (removeSwiftModule(identifier)) {
+      case "Array":
+      case "Dictionary":
+      case "Optional":
+      case "ImplicitlyUnwrappedOptional":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static String sugar(String identifier, List<String> arguments, String original) {
+    String name = removeSwiftModule(identifier);
+    if (name.equals("Dictionary") && arguments.size() == 2) {
+      return "[" + arguments.get(0) + ":" + arguments.get(1) + "]";
+    } else if (name.equals("Array") && arguments.size() == 1) {
+      return "[" + arguments.get(0) + "]";
+    } else if (name.equals("Optional") && arguments.size() == 1) {
+      return wrapFunctionType(arguments.get(0)) + "?";
+    } else if (name.equals("ImplicitlyUnwrappedOptional") && arguments.size() == 1) {
+      return wrapFunctionType(arguments.get(0)) + "!";
+    }
+    return original;
+  }
+
+  private static String removeSwiftModule(String identifier) {
+    return identifier.startsWith("Swift.") ? identifier.substring("Swift.".length()) : identifier;
+  }
+
+  private static String wrapFunctionType(String type) {
+    if (indexOfTopLevel(type, '-', 0) != -1) {
+      return "(" + type + ")";
+    }
+    return type;
+  }
+
+  private static int findClosingAngleBracket(String type, int open) {
+    int depth = 0;
+    for (int i = open; i < type.length(); i++) {
+      char c = type.charAt(i);
+      if (c == '<') {
+        depth++;
+      } else if (c == '>' && !isArrow(type, i)) {
+        depth--;
+        if (depth == 0) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static List<String> splitTopLevel(String arguments) {
+    List<String> result = new ArrayList<>();
+    int start = 0;
+    int comma;
+    while ((comma = indexOfTopLevel(arguments, ',', start)) != -1) {
+      result.add(arguments.substring(start, comma));
+      start = comma + 1;
+    }
+    result.add(arguments.substring(start));
+    return result;
+  }
+
+  /**
+   * @return the index of the first character not nested in brackets, parentheses or angle brackets, or -1.
+   */
+  private static int indexOfTopLevel(String string, char character, int from) {
+    int depth = 0;
+    for (int i = from; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (depth == 0 && c == character) {
+        return i;
+      }
+      if (c == '(' || c == '[' || c == '<') {
+        depth++;
+      } else if (c == ')' || c == ']' || (c == '>' && !isArrow(string, i))) {
+        depth--;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isArrow(String string, int index) {
+    return 0 < index && string.charAt(index - 1) == '-';
+  }
+
+  private static String removeWhitespace(String string) {
+    StringBuilder builder = new StringBuilder(string.length());
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (!Character.isWhitespace(c)) {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+
+  public String getMethodName() {
+    return methodName;
+  }
+
+  public int getParameterCount() {
+    return labels.length;
+  }
+
+  public String getLabel(int index) {
+    return labels[index];
+  }
+
+  public String getType(int index) {
+    return types[index];
+  }
+
+  /**
+   * @return the canonical return type or an empty string when it is not part of the signature.
+   */
+  public String getReturnType() {
+    return returnType;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof MethodSignature)) return false;
+    MethodSignature other = (MethodSignature) o;
+    return hash == other.hash
+           && methodName.equals(other.methodName)
+           && Arrays.equals(labels, other.labels)
+           && Arrays.equals(types, other.types)
+           && returnType.equals(other.returnType);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(methodName).append('(');
+    for (int i = 0; i < labels.length; i++) {
+      builder.append(labels[i]).append(':').append(types[i]).append(',');
+    }
+    builder.append(')');
+    if (!returnType.isEmpty()) {
+      builder.append("->").append(returnType);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,79 @@
+package codes.seanhenry.util;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiElement;
+
+import java.util.*;
+
+/**
+ * Gathers elements of several types in a single walk of the tree below a root element.
+ * The walk does not descend into gathered elements and uses an explicit stack so deep trees cannot overflow the call stack.
+ */
+public class MultiTypeElementGatherer {
+
+  private static final int CANCELLATION_CHECK_INTERVAL = 256;
+
+  private final List<Class<? extends PsiElement>> types;
+  private final List<List<PsiElement>> elements = new ArrayList<>();
+  private int visitedCount;
+
+  @SafeVarargs
+  public MultiTypeElementGatherer(Class<? extends PsiElement>... types) {
+    this.types = Arrays.asList(types);
+    for (int i = 0; i < types.length; i++) {
+      elements.add(new ArrayList<>());
+    }
+  }
+
+  public void gather(PsiElement root) {
+    Deque<PsiElement> stack = new ArrayDeque<>();
+    push(stack, root.getFirstChild());
+    while (!stack.isEmpty()) {
+      PsiElement element = stack.pop();
+      if (++visitedCount % CANCELLATION_CHECK_INTERVAL == 0) {
+        ProgressManager.checkCanceled();
+      }
+      push(stack, element.getNextSibling());
+      int typeIndex = getTypeIndex(element);
+      if (typeIndex == -1) {
+        push(stack, element.getFirstChild());
+      } else {
+        elements.get(typeIndex).add(element);
+      }
+    }
+  }
+
+  private static void push(Deque<PsiElement> stack, PsiElement element) {
+    if (element != null) {
+      stack.push(element);
+    }
+  }
+
+  private int getTypeIndex(PsiElement element) {
+    for (int i = 0; i < types.size(); i++) {
+      if (types.get(i).isInstance(element)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public <T extends PsiElement> List<T> getElements(Class<T> type) {
+    int index = types.indexOf(type);
+    if (index == -1) {
+      return Collections.emptyList();
+    }
+    List<T> result = new ArrayList<>();
+    for (PsiElement element : elements.get(index)) {
+      result.add(type.cast(element));
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of elements visited by the walks so far.
+   */
+  public int getVisitedCount() {
+    return visitedCount;
+  }
+}
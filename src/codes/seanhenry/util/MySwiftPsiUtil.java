@@ -18,7 +18,6 @@ package codes.seanhenry.util;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jetbrains.swift.psi.*;
-import org.jetbrains.annotations.Nullable;
 
 public class MySwiftPsiUtil {
 
@@ -31,22 +30,7 @@ public class MySwiftPsiUtil {
     if (referenceType == null) {
       return null;
     }
-    PsiElement resolved = referenceType.resolve();
-    if (type.isInstance(resolved)) {
-      return type.cast(resolved);
-    } else if (resolved instanceof SwiftTypeAliasDeclaration) {
-      return findTypeAliasType((SwiftTypeAliasDeclaration)resolved, type);
-    }
-    return null;
-  }
-
-  @Nullable
-  private static <T extends PsiElement> T findTypeAliasType(SwiftTypeAliasDeclaration typeAlias, Class<T> type) {
-    SwiftTypeElement typeAliasType = typeAlias.getTypeAssignment().getTypeElement();
-    if (type.isInstance(typeAliasType)) {
-      return type.cast(typeAliasType);
-    }
-    return null;
+    return TypeResolutionCache.getInstance(element.getProject()).resolve(referenceType, type);
   }
 
   private static <T extends PsiElement> T findType(PsiElement element, Class<T> type) {
@@ -68,6 +52,17 @@ public class MySwiftPsiUtil {
     return false;
   }
 
+  /**
+   * @return true when the outermost type in the element is an optional or an implicitly unwrapped optional.
+   */
+  public static boolean isOptional(PsiElement element) {
+    return isOptional(PsiTreeUtil.findChildOfType(element, SwiftTypeElement.class));
+  }
+
+  private static boolean isOptional(SwiftTypeElement type) {
+    return type instanceof SwiftImplicitlyUnwrappedOptionalTypeElement || type instanceof SwiftOptionalTypeElement;
+  }
+
   public static String getResolvedTypeName(PsiElement element) {
     return getResolvedTypeName(element, true);
   }
@@ -77,12 +72,14 @@ public class MySwiftPsiUtil {
     if (type == null) {
       return null;
     }
-    SwiftTypeAliasDeclaration alias = findResolvedType(type, SwiftTypeAliasDeclaration.class);
-    SwiftProtocolDeclaration protocol = PsiTreeUtil.getParentOfType(alias, SwiftProtocolDeclaration.class);
-    if (protocol != null) {
-      return protocol.getName() + "." + type.getText();
-    }
-    return type.getText();
+    return TypeResolutionCache.getInstance(element.getProject()).getQualifiedName(type, () -> {
+      SwiftTypeAliasDeclaration alias = findResolvedType(type, SwiftTypeAliasDeclaration.class);
+      SwiftProtocolDeclaration protocol = PsiTreeUtil.getParentOfType(alias, SwiftProtocolDeclaration.class);
+      if (protocol != null) {
+        return protocol.getName() + "." + type.getText();
+      }
+      return type.getText();
+    });
   }
 
   public static String getName(SwiftVariableDeclaration property) {
@@ -94,8 +91,7 @@ public class MySwiftPsiUtil {
     SwiftTypeElement type = PsiTreeUtil.findChildOfType(element, SwiftTypeElement.class);
     if (type == null) return null;
     SwiftTypeElement nextType = PsiTreeUtil.findChildOfType(type, SwiftTypeElement.class);
-    boolean isOptional = type instanceof SwiftImplicitlyUnwrappedOptionalTypeElement || type instanceof SwiftOptionalTypeElement;
-    if (nextType != null && removeOptional && isOptional) {
+    if (nextType != null && removeOptional && isOptional(type)) {
       return nextType;
     }
     return type;
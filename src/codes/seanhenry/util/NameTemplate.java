@@ -0,0 +1,159 @@
+package codes.seanhenry.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A naming template such as {@code "invoked{Name}Parameters"} compiled once into literal and placeholder segments.
+ * A placeholder starting with a lower case letter inserts its value unchanged and one starting with an upper case letter
+ * inserts its value with the first letter capitalised, so {@code "{name}CallCount"} turns {@code "animate"} into
+ * {@code "animateCallCount"}.
+ * Formatting writes straight into a builder without intermediate strings.
+ */
+public class NameTemplate {
+
+  private final String pattern;
+  private final String[] literals;
+  private final int[] placeholders;
+  private final boolean[] capitalise;
+  private final int literalLength;
+
+  private NameTemplate(String pattern, String[] literals, int[] placeholders, boolean[] capitalise) {
+    this.pattern = pattern;
+    this.literals = literals;
+    this.placeholders = placeholders;
+    this.capitalise = capitalise;
+    int length = 0;
+    for (String literal : literals) {
+      length += literal.length();
+    }
+    literalLength = length;
+  }
+
+  /**
+   * @param pattern the template e.g. {@code "stubbed{Method}{Param}Result"}.
+   * @param placeholderNames the lower case names of the placeholders in the order their values are passed to
+   *                         {@link #format(String...)}. Every placeholder must appear in the pattern.
+   * @throws IllegalArgumentException when the pattern cannot produce a valid Swift identifier.
+   */
+  public static NameTemplate compile(String pattern, String... placeholderNames) {
+    if (pattern == null || pattern.isEmpty()) {
+      throw new IllegalArgumentException("The template is empty.");
+    }
+    List<String> literals = new ArrayList<>();
+    List<Integer> placeholders = new ArrayList<>();
+    List<Boolean> capitalise = new ArrayList<>();
+    boolean[] isUsed = new boolean[placeholderNames.length];
+    StringBuilder literal = new StringBuilder();
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      if (c != '{') {
+        if (!isIdentifierCharacter(c)) {
+          throw new IllegalArgumentException("'" + c + "' cannot be used in a name.");
+        }
+        literal.append(c);
+        i++;
+        continue;
+      }
+      int end = pattern.indexOf('}', i);
+      if (end < 0) {
+        throw new IllegalArgumentException("'{' is not closed.");
+      }
+      String placeholder = pattern.substring(i + 1, end);
+      int index = indexOf(placeholderNames, placeholder);
+      if (index < 0) {
+        throw new IllegalArgumentException("{" + placeholder + "} is not a placeholder. Use " + describe(placeholderNames) + ".");
+      }
+      literals.add(literal.toString());
+      literal.setLength(0);
+      placeholders.add(index);
+      capitalise.add(Character.isUpperCase(placeholder.charAt(0)));
+      isUsed[index] = true;
+      i = end + 1;
+    }
+    literals.add(literal.toString());
+    for (int j = 0; j < isUsed.length; j++) {
+      if (!isUsed[j]) {
+        throw new IllegalArgumentException("The template must contain {" + placeholderNames[j] + "}.");
+      }
+    }
+    if (Character.isDigit(pattern.charAt(0))) {
+      throw new IllegalArgumentException("A name cannot start with a digit.");
+    }
+    int[] placeholderArray = new int[placeholders.size()];
+    boolean[] capitaliseArray = new boolean[capitalise.size()];
+    for (int j = 0; j < placeholderArray.length; j++) {
+      placeholderArray[j] = placeholders.get(j);
+      capitaliseArray[j] = capitalise.get(j);
+    }
+    return new NameTemplate(pattern, literals.toArray(new String[0]), placeholderArray, capitaliseArray);
+  }
+
+  public String getPattern() {
+    return pattern;
+  }
+
+  /**
+   * @param values the value of each placeholder in the order given to {@link #compile(String, String...)}.
+   */
+  public String format(String... values) {
+    int length = literalLength;
+    for (int placeholder : placeholders) {
+      length += values[placeholder].length();
+    }
+    return appendTo(new StringBuilder(length), values).toString();
+  }
+
+  /**
+   * Appends the formatted name to {@code builder} so a builder can be reused between names.
+   */
+  public StringBuilder appendTo(StringBuilder builder, String... values) {
+    for (int i = 0; i < placeholders.length; i++) {
+      builder.append(literals[i]);
+      String value = values[placeholders[i]];
+      if (capitalise[i] && !value.isEmpty()) {
+        builder.append(Character.toUpperCase(value.charAt(0))).append(value, 1, value.length());
+      } else {
+        builder.append(value);
+      }
+    }
+    return builder.append(literals[literals.length - 1]);
+  }
+
+  private static int indexOf(String[] placeholderNames, String placeholder) {
+    if (placeholder.isEmpty()) {
+      return -1;
+    }
+    for (int i = 0; i < placeholderNames.length; i++) {
+      if (placeholderNames[i].equals(placeholder) || capitalise(placeholderNames[i]).equals(placeholder)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static String describe(String[] placeholderNames) {
+    StringBuilder builder = new StringBuilder();
+    for (String name : placeholderNames) {
+      if (builder.length() != 0) {
+        builder.append(", ");
+      }
+      builder.append('{').append(name).append("} or {").append(capitalise(name)).append('}');
+    }
+    return builder.toString();
+  }
+
+  private static String capitalise(String string) {
+    return Character.toUpperCase(string.charAt(0)) + string.substring(1);
+  }
+
+  private static boolean isIdentifierCharacter(char c) {
+    return c == '_' || Character.isLetterOrDigit(c);
+  }
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+}
@@ -0,0 +1,67 @@
+package codes.seanhenry.util;
+
+import java.util.Arrays;
+
+/**
+ * Summarises the most recent samples of a measurement.
+ * Only the last {@code capacity} samples are kept so the summary follows the current session rather than its whole history.
+ */
+public class RollingHistogram {
+
+  private final long[] samples;
+  private long count;
+  private long total;
+
+  public RollingHistogram(int capacity) {
+    samples = new long[capacity];
+  }
+
+  public synchronized void add(long sample) {
+    samples[(int) (count % samples.length)] = sample;
+    count++;
+    total += sample;
+  }
+
+  /**
+   * @return the number of samples ever added.
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the sum of every sample ever added.
+   */
+  public synchronized long getTotal() {
+    return total;
+  }
+
+  /**
+   * @param percentile between 0 and 100.
+   * @return the sample at the percentile of the kept samples, or 0 when there are none.
+   */
+  public synchronized long getPercentile(double percentile) {
+    long[] sorted = getSortedSamples();
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+  }
+
+  public synchronized long getMax() {
+    long[] sorted = getSortedSamples();
+    return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+  }
+
+  public synchronized void clear() {
+    count = 0;
+    total = 0;
+  }
+
+  private long[] getSortedSamples() {
+    long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+    Arrays.sort(sorted);
+    return sorted;
+  }
+}
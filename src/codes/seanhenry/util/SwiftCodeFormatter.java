@@ -0,0 +1,93 @@
+package codes.seanhenry.util;
+
+/**
+ * Lays out generated Swift code line by line so it can be inserted without being reformatted.
+ * Each line is indented by the number of braces open before it and opening braces are placed
+ * at the end of the line or on the next line.
+ */
+public class SwiftCodeFormatter {
+
+  private final String indent;
+  private final boolean isFunctionBraceOnNextLine;
+  private final boolean isBraceOnNextLine;
+
+  /**
+   * @param indent the text of one indent level e.g. 4 spaces or a tab.
+   * @param isFunctionBraceOnNextLine true when the brace opening a function body goes on its own line.
+   * @param isBraceOnNextLine true when every other opening brace goes on its own line.
+   */
+  public SwiftCodeFormatter(String indent, boolean isFunctionBraceOnNextLine, boolean isBraceOnNextLine) {
+    this.indent = indent;
+    this.isFunctionBraceOnNextLine = isFunctionBraceOnNextLine;
+    this.isBraceOnNextLine = isBraceOnNextLine;
+  }
+
+  public static SwiftCodeFormatter create(boolean useTab, int indentSize, boolean isFunctionBraceOnNextLine, boolean isBraceOnNextLine) {
+    String indent = useTab ? "\t" : repeat(' ', indentSize);
+    return new SwiftCodeFormatter(indent, isFunctionBraceOnNextLine, isBraceOnNextLine);
+  }
+
+  public String getIndent() {
+    return indent;
+  }
+
+  /**
+   * @param code code with a single statement or brace per line. Existing indentation is ignored.
+   * @param baseIndent the indentation of the first line.
+   * @return the formatted code with every line indented and no trailing new line.
+   */
+  public String format(String code, String baseIndent) {
+    StringBuilder builder = new StringBuilder(code.length() * 2);
+    int level = 0;
+    for (String rawLine : code.split("\n")) {
+      String line = rawLine.trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      if (line.startsWith("}")) {
+        level = Math.max(0, level - 1);
+      }
+      boolean opensBlock = line.endsWith("{");
+      if (opensBlock && 1 < line.length() && isBraceOnNextLine(line)) {
+        appendLine(builder, baseIndent, level, line.substring(0, line.length() - 1).trim());
+        appendLine(builder, baseIndent, level, "{");
+      } else {
+        appendLine(builder, baseIndent, level, line);
+      }
+      if (opensBlock) {
+        level++;
+      }
+    }
+    return builder.toString();
+  }
+
+  private boolean isBraceOnNextLine(String line) {
+    if (line.startsWith("}")) {
+      return false;
+    }
+    return isFunction(line) ? isFunctionBraceOnNextLine : isBraceOnNextLine;
+  }
+
+  private static boolean isFunction(String line) {
+    return line.startsWith("func ") || line.contains(" func ");
+  }
+
+  private void appendLine(StringBuilder builder, String baseIndent, int level, String line) {
+    if (builder.length() != 0) {
+      builder.append('\n');
+    }
+    builder.append(baseIndent);
+    for (int i = 0; i < level; i++) {
+      builder.append(indent);
+    }
+    builder.append(line);
+  }
+
+  private static String repeat(char c, int count) {
+    StringBuilder builder = new StringBuilder(count);
+    for (int i = 0; i < count; i++) {
+      builder.append(c);
+    }
+    return builder.toString();
+  }
+}
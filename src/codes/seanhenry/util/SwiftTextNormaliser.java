@@ -0,0 +1,49 @@
+package codes.seanhenry.util;
+
+/**
+ * Normalises Swift source so that members can be compared regardless of how they are formatted.
+ */
+public class SwiftTextNormaliser {
+
+  private SwiftTextNormaliser() {
+  }
+
+  /**
+   * Runs of whitespace between two words become one space and other whitespace is removed,
+   * so {@code @objc func} and {@code @objcfunc} stay different while {@code a(b: Int)} and {@code a( b:Int )} do not.
+   * String literals are kept as they are.
+   * @return the text in normal form.
+   */
+  public static String normalise(String text) {
+    StringBuilder builder = new StringBuilder(text.length());
+    boolean isInString = false;
+    boolean hasWhitespace = false;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (isInString) {
+        builder.append(c);
+        if (c == '\\' && i + 1 < text.length()) {
+          builder.append(text.charAt(++i));
+        } else if (c == '"') {
+          isInString = false;
+        }
+        continue;
+      }
+      if (Character.isWhitespace(c)) {
+        hasWhitespace = true;
+        continue;
+      }
+      if (hasWhitespace && 0 < builder.length() && isWordPart(builder.charAt(builder.length() - 1)) && isWordPart(c)) {
+        builder.append(' ');
+      }
+      hasWhitespace = false;
+      builder.append(c);
+      isInString = c == '"';
+    }
+    return builder.toString();
+  }
+
+  private static boolean isWordPart(char c) {
+    return Character.isJavaIdentifierPart(c);
+  }
+}
@@ -0,0 +1,167 @@
+package codes.seanhenry.util;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.swift.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Remembers what type references resolve to so that each distinct type is resolved once.
+ * A reference is identified by its text and the declaration it is written in, as a name only means the same type
+ * within the same type, generic function or file.
+ * One cache is kept per project until any PSI changes, so a batch of mocks sharing protocols shares resolutions.
+ */
+public class TypeResolutionCache {
+
+  private static final Key<CachedValue<TypeResolutionCache>> CACHE_KEY = Key.create("codes.seanhenry.util.TypeResolutionCache");
+  private static final AtomicLong requests = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+
+  private final Map<ReferenceKey, Optional<PsiElement>> targets = new ConcurrentHashMap<>();
+  private final Map<ReferenceKey, String> qualifiedNames = new ConcurrentHashMap<>();
+
+  private TypeResolutionCache() {
+  }
+
+  /**
+   * Must be called inside a read action.
+   * @return the cache shared by the project until the PSI next changes.
+   */
+  public static TypeResolutionCache getInstance(@NotNull Project project) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, CACHE_KEY, () -> CachedValueProvider.Result.create(
+      new TypeResolutionCache(),
+      PsiModificationTracker.MODIFICATION_COUNT
+    ), false);
+  }
+
+  /**
+   * @return the declaration the reference resolves to, or null when it does not resolve.
+   */
+  @Nullable
+  public PsiElement resolve(@NotNull SwiftReferenceTypeElement reference) {
+    requests.incrementAndGet();
+    ReferenceKey key = new ReferenceKey(reference);
+    Optional<PsiElement> target = targets.get(key);
+    if (target == null) {
+      misses.incrementAndGet();
+      GenerationStatistics.getInstance().increment(GenerationStatistics.Counter.RESOLVE_CALLS, 1);
+      target = Optional.ofNullable(reference.resolve());
+      targets.put(key, target);
+    }
+    return target.orElse(null);
+  }
+
+  /**
+   * Follows a reference through any number of typealiases until an element of the given type is found.
+   * A typealias is returned when it is itself of the given type.
+   * @return the first element of the given type along the chain, or null when there is none or the chain is circular.
+   */
+  @Nullable
+  public <T extends PsiElement> T resolve(@NotNull SwiftReferenceTypeElement reference, @NotNull Class<T> type) {
+    PsiElement resolved = resolve(reference);
+    List<SwiftTypeAliasDeclaration> visited = null;
+    while (resolved instanceof SwiftTypeAliasDeclaration && !type.isInstance(resolved)) {
+      SwiftTypeAliasDeclaration alias = (SwiftTypeAliasDeclaration) resolved;
+      if (visited == null) {
+        visited = new ArrayList<>();
+      } else if (visited.contains(alias)) {
+        return null;
+      }
+      visited.add(alias);
+      SwiftTypeElement aliasedType = alias.getTypeAssignment() == null ? null : alias.getTypeAssignment().getTypeElement();
+      if (type.isInstance(aliasedType)) {
+        return type.cast(aliasedType);
+      } else if (!(aliasedType instanceof SwiftReferenceTypeElement)) {
+        return null;
+      }
+      resolved = resolve((SwiftReferenceTypeElement) aliasedType);
+    }
+    return type.isInstance(resolved) ? type.cast(resolved) : null;
+  }
+
+  /**
+   * Caches a name computed from a type element, such as {@code Protocol.Assoc}, for every reference with the same text and scope.
+   */
+  public String getQualifiedName(@NotNull SwiftTypeElement type, @NotNull Supplier<String> qualify) {
+    ReferenceKey key = new ReferenceKey(type);
+    String name = qualifiedNames.get(key);
+    if (name == null) {
+      name = qualify.get();
+      qualifiedNames.put(key, name);
+    }
+    return name;
+  }
+
+  public static long getHitCount() {
+    return requests.get() - misses.get();
+  }
+
+  public static long getMissCount() {
+    return misses.get();
+  }
+
+  public static String getStatistics() {
+    return "Type resolution cache: " + getHitCount() + " hit(s), " + getMissCount() + " miss(es)";
+  }
+
+  public static void resetStatistics() {
+    requests.set(0);
+    misses.set(0);
+  }
+
+  private static class ReferenceKey {
+
+    private final PsiElement scope;
+    private final String text;
+
+    private ReferenceKey(PsiElement element) {
+      scope = findScope(element);
+      text = element.getText();
+    }
+
+    /**
+     * Generic parameters shadow other types inside their function, so those functions are their own scope.
+     */
+    private static PsiElement findScope(PsiElement element) {
+      for (PsiElement parent = element.getParent(); parent != null; parent = parent.getParent()) {
+        if (parent instanceof SwiftTypeDeclaration || parent instanceof PsiFile) {
+          return parent;
+        }
+        if (parent instanceof SwiftFunctionDeclaration
+            && PsiTreeUtil.getChildOfType(parent, SwiftGenericParameterClause.class) != null) {
+          return parent;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ReferenceKey)) return false;
+      ReferenceKey that = (ReferenceKey) o;
+      return scope == that.scope && text.equals(that.text);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(scope) + text.hashCode();
+    }
+  }
+}
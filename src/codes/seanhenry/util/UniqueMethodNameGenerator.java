@@ -1,114 +1,102 @@
 package codes.seanhenry.util;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
-public class UniqueMethodNameGenerator {
-
-  private final HashMap<String, MethodModel> methodModels;
-  private List<MethodModel> overloadedModels;
-  private List<String> generatedComponents;
-  private MethodModel generatingModel;
-
-  public UniqueMethodNameGenerator(MethodModel... methodModels) {
+/**
+ * Generates a unique name for each method in a set of possibly overloaded methods.
+ * Overloaded methods have their parameter labels appended, followed by as many parameter types as are needed to tell them apart,
+ * and then their return type when they are overloaded by return type alone.
+ * Names for the whole set are generated in one pass using a trie of each method's labels, types then return type, and are then memoized.
+ * Methods are identified by an ID of type {@code K}, which may be the method's {@link MethodSignature} itself
+ * so that identical methods share a name.
+ */
+public class UniqueMethodNameGenerator<K> {
+
+  private static final String END_OF_LABELS = "\u0000";
+  private final List<MethodModel<K>> methodModels;
+  private Map<K, String> uniqueNames;
+
+  @SafeVarargs
+  public UniqueMethodNameGenerator(MethodModel<K>... methodModels) {
     this(Arrays.asList(methodModels));
   }
 
-  public UniqueMethodNameGenerator(List<MethodModel> methodModels) {
-    HashMap<String, MethodModel> models = new HashMap<>();
-    for (MethodModel m : methodModels) {
+  public UniqueMethodNameGenerator(List<MethodModel<K>> methodModels) {
+    LinkedHashMap<K, MethodModel<K>> models = new LinkedHashMap<>();
+    for (MethodModel<K> m : methodModels) {
       models.put(m.getID(), m);
     }
-    this.methodModels = models;
-  }
-
-  public String generate(String id) {
-    generatedComponents = new ArrayList<>();
-    generatingModel = methodModels.get(id);
-    if (generatingModel == null)
-      return null;
-    overloadedModels = getOverloadedMethodModels(generatingModel);
-    if (overloadedModels.isEmpty())
-      return joinGeneratedComponents();
-
-    buildComponentsUsingLabels();
-    filterSameParameterCountMethods();
-    buildComponentsUsingTypes();
-    return joinGeneratedComponents();
-  }
-
-  private List<MethodModel> getOverloadedMethodModels(MethodModel model) {
-    return methodModels.values()
-      .stream()
-      .filter(this::equalMethodNames)
-      .filter(this::excludeGeneratingModel)
-      .collect(Collectors.toList());
+    this.methodModels = new ArrayList<>(models.values());
   }
 
-  private boolean excludeGeneratingModel(MethodModel model) {
-    return !model.getID().equals(generatingModel.getID());
+  public String generate(K id) {
+    return generateAll().get(id);
   }
 
-  private boolean equalMethodNames(MethodModel model) {
-    return model.getMethodName().equals(generatingModel.getMethodName());
-  }
-
-  private String joinGeneratedComponents() {
-    generatedComponents.add(0, generatingModel.getMethodName());
-    List<String> filtered = generatedComponents.stream()
-      .filter(this::excludeUnderscore)
-      .collect(Collectors.toList());
-    return String.join("", filtered);
-  }
-
-  private boolean excludeUnderscore(String string) {
-    return !string.equals("_");
-  }
-
-  private void buildComponentsUsingLabels() {
-    for (int i = 0; i < generatingModel.getParamComponentsList().size(); i++) {
-      if (!hasParameter(i))
-        break;
-      String param = generatingModel.getParamComponentsList().get(i).get("label");
-      generatedComponents.add(toCapitalizedString(param));
-      filterDifferentParameterMethods(i, MethodModel.LABEL);
+  /**
+   * @return the unique name of every method keyed by its ID.
+   */
+  public Map<K, String> generateAll() {
+    if (uniqueNames != null) {
+      return uniqueNames;
     }
-  }
-
-  private void filterSameParameterCountMethods() {
-    overloadedModels = overloadedModels.stream()
-      .filter(m -> m.getParamComponentsList().size() == generatingModel.getParamComponentsList().size())
-      .collect(Collectors.toList());
-  }
-
-  private void buildComponentsUsingTypes() {
-    int insertionIndex = 0;
-    for (int i = 0; i < generatingModel.getParamComponentsList().size(); i++) {
-      insertionIndex++;
-      if (overloadedModels.isEmpty() || !hasParameter(i))
-        break;
-      String type = generatingModel.getParamComponentsList().get(i).get("type");
-      generatedComponents.add(i + insertionIndex, toCapitalizedString(type));
-      filterDifferentParameterMethods(i, MethodModel.TYPE);
+    uniqueNames = new HashMap<>();
+    for (List<MethodModel<K>> overloads : groupByMethodName().values()) {
+      if (overloads.size() == 1) {
+        MethodModel<K> model = overloads.get(0);
+        uniqueNames.put(model.getID(), model.getMethodName());
+        continue;
+      }
+      TrieNode root = new TrieNode();
+      for (MethodModel<K> model : overloads) {
+        root.insert(model);
+      }
+      for (MethodModel<K> model : overloads) {
+        uniqueNames.put(model.getID(), buildUniqueName(model, root));
+      }
     }
+    return uniqueNames;
   }
 
-  private void filterDifferentParameterMethods(int paramIndex, String type) {
-    overloadedModels = overloadedModels.stream()
-      .filter(m -> paramIndex < m.getParamComponentsList().size())
-      .filter(m -> equalParameters(paramIndex, type, m))
-      .collect(Collectors.toList());
+  private Map<String, List<MethodModel<K>>> groupByMethodName() {
+    Map<String, List<MethodModel<K>>> groups = new LinkedHashMap<>();
+    for (MethodModel<K> model : methodModels) {
+      groups.computeIfAbsent(model.getMethodName(), k -> new ArrayList<>()).add(model);
+    }
+    return groups;
   }
 
-  private boolean equalParameters(int paramIndex, String type, MethodModel model) {
-    String item = generatingModel.getParamComponentsList().get(paramIndex).get(
-      type);
-    String otherItem = model.getParamComponentsList().get(paramIndex).get(type);
-    return item.equals(otherItem);
+  private String buildUniqueName(MethodModel<K> model, TrieNode root) {
+    MethodSignature signature = model.getSignature();
+    int parameterCount = signature.getParameterCount();
+    TrieNode node = root;
+    for (int i = 0; i < parameterCount; i++) {
+      node = node.getChild(signature.getLabel(i));
+    }
+    node = node.getChild(END_OF_LABELS);
+    int typeCount = 0;
+    while (typeCount < parameterCount && 1 < node.count) {
+      node = node.getChild(signature.getType(typeCount));
+      typeCount++;
+    }
+    StringBuilder builder = new StringBuilder(signature.getMethodName());
+    for (int i = 0; i < parameterCount; i++) {
+      appendComponent(builder, signature.getLabel(i));
+      if (i < typeCount) {
+        appendComponent(builder, signature.getType(i));
+      }
+    }
+    if (1 < node.count) {
+      appendComponent(builder, signature.getReturnType());
+    }
+    return builder.toString();
   }
 
-  private boolean hasParameter(int index) {
-    return index < generatingModel.getParamComponentsList().size();
+  private void appendComponent(StringBuilder builder, String component) {
+    if (component.equals("_")) {
+      return;
+    }
+    builder.append(toCapitalizedString(component));
   }
 
   private String toCapitalizedString(String param) {
@@ -117,50 +105,64 @@ public class UniqueMethodNameGenerator {
     return param.toUpperCase();
   }
 
-  public static class MethodModel {
+  /**
+   * A node in a trie of a method's parameter labels, an end of labels marker, its parameter types and then its return type.
+   * Each node counts the methods sharing its path.
+   */
+  private static class TrieNode {
 
-    public static final String LABEL = "label";
-    public static final String TYPE = "type";
-    private String id;
-    private String methodName;
-    private List<Map<String, String>> paramComponents;
+    private final Map<String, TrieNode> children = new HashMap<>();
+    private int count;
 
-    public MethodModel(String id, String methodName, String... paramLabels) {
-      this.id = id;
-      this.methodName = methodName;
-      paramComponents = new ArrayList<>();
-      for (String param : paramLabels) {
-        HashMap<String, String> map = new HashMap<>();
-        map.put(LABEL, getLabel(param));
-        map.put(TYPE, getType(param));
-        paramComponents.add(map);
+    private void insert(MethodModel<?> model) {
+      MethodSignature signature = model.getSignature();
+      count++;
+      TrieNode node = this;
+      for (int i = 0; i < signature.getParameterCount(); i++) {
+        node = node.getOrCreateChild(signature.getLabel(i));
+      }
+      node = node.getOrCreateChild(END_OF_LABELS);
+      for (int i = 0; i < signature.getParameterCount(); i++) {
+        node = node.getOrCreateChild(signature.getType(i));
       }
+      node.getOrCreateChild(signature.getReturnType());
     }
 
-    public String getID() {
-      return id;
+    private TrieNode getOrCreateChild(String component) {
+      TrieNode child = children.computeIfAbsent(component, k -> new TrieNode());
+      child.count++;
+      return child;
     }
 
-    public List<Map<String, String>> getParamComponentsList() {
-      return paramComponents;
+    private TrieNode getChild(String component) {
+      return children.get(component);
     }
+  }
 
-    public String getMethodName() {
-      return methodName;
+  public static class MethodModel<K> {
+
+    private final K id;
+    private final MethodSignature signature;
+
+    public MethodModel(K id, String methodName, String... paramLabels) {
+      this(id, MethodSignature.parse(methodName, paramLabels));
     }
 
-    private String getType(String param) {
-      param = param.replace(" ", "");
-      String[] components = param.split(":");
-      if (1 < components.length) {
-        return components[1].split("=")[0];
-      }
-      return "";
+    public MethodModel(K id, MethodSignature signature) {
+      this.id = id;
+      this.signature = signature;
+    }
+
+    public K getID() {
+      return id;
     }
 
-    private String getLabel(String param) {
-      param = param.split(":")[0];
-      return param.trim().split(" ")[0];
+    public MethodSignature getSignature() {
+      return signature;
+    }
+
+    public String getMethodName() {
+      return signature.getMethodName();
     }
   }
 }
@@ -0,0 +1,59 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.helpers.MockGeneratorTestCase;
+import codes.seanhenry.helpers.XcodeProjectFiles;
+import codes.seanhenry.model.MockRenderer;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class MockAnalysisTests extends MockGeneratorTestCase {
+
+  @Override
+  protected void addFilesToProject(File projectDir) throws IOException {
+    // UITableViewDelegate inherits from UIScrollViewDelegate, which is only reached through the SDK
+    write(projectDir, "OrderProtocol.swift", "protocol OrderProtocol {\nfunc order()\n}\n");
+    write(projectDir, "OrderMock.swift", "import UIKit\n\nclass OrderMock: NSObject, UITableViewDelegate, OrderProtocol {\n}\n");
+    XcodeProjectFiles.addSourceFiles(new File(projectDir, "TestProject.xcodeproj/project.pbxproj"),
+                                     Arrays.asList("OrderProtocol.swift", "OrderMock.swift"));
+  }
+
+  public void testShouldOrderMembersTheSame_whenProtocolModelCacheIsWarm() {
+    ProtocolModelCache.getInstance().clear();
+    List<String> cold = render();
+    long hits = ProtocolModelCache.getHitCount();
+    List<String> warm = render();
+    assertTrue(hits < ProtocolModelCache.getHitCount());
+    assertEquals(cold, warm);
+    // a protocol comes before the protocols it inherits from, which come before later protocols of the mock
+    assertTrue(indexOf(warm, "func tableView(_ tableView: UITableView, didSelectRowAt") < indexOf(warm, "func scrollViewDidScroll("));
+    assertTrue(indexOf(warm, "func scrollViewDidScroll(") < indexOf(warm, "func order()"));
+  }
+
+  private List<String> render() {
+    SwiftClassDeclaration mock = PsiTreeUtil.findChildOfType(findMockFile("Order"), SwiftClassDeclaration.class);
+    MockAnalysis analysis = MockAnalysis.analyse(mock);
+    assertNull(analysis.getErrorMessage());
+    return new MockRenderer().render(analysis.getModel());
+  }
+
+  private static int indexOf(List<String> members, String text) {
+    for (int i = 0; i < members.size(); i++) {
+      if (members.get(i).contains(text)) {
+        return i;
+      }
+    }
+    fail("No member contains " + text);
+    return -1;
+  }
+
+  private static void write(File directory, String name, String text) throws IOException {
+    Files.write(new File(directory, name).toPath(), text.getBytes(StandardCharsets.UTF_8));
+  }
+}
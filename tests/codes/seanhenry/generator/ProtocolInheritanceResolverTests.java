@@ -0,0 +1,96 @@
+package codes.seanhenry.generator;
+
+import codes.seanhenry.helpers.MockGeneratorTestCase;
+import codes.seanhenry.helpers.XcodeProjectFiles;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+import com.jetbrains.swift.psi.SwiftProtocolDeclaration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ProtocolInheritanceResolverTests extends MockGeneratorTestCase {
+
+  private final ProtocolInheritanceResolver resolver = new ProtocolInheritanceResolver();
+
+  @Override
+  protected void addFilesToProject(File projectDir) throws IOException {
+    write(projectDir, "CycleMock.swift",
+          "protocol CycleP: CycleQ {}\n" +
+          "protocol CycleQ: CycleP {}\n" +
+          "class CycleMock: CycleP {\n}\n");
+    write(projectDir, "DiamondMock.swift",
+          "protocol DiamondTop: DiamondLeft, DiamondRight {}\n" +
+          "protocol DiamondLeft: DiamondBottom {}\n" +
+          "protocol DiamondRight: DiamondBottom {}\n" +
+          "protocol DiamondBottom {}\n" +
+          "class DiamondMock: DiamondTop {\n}\n");
+    write(projectDir, "SiblingMock.swift",
+          "protocol SiblingA: SiblingA1 {}\n" +
+          "protocol SiblingA1 {}\n" +
+          "protocol SiblingB: SiblingB1 {}\n" +
+          "protocol SiblingB1 {}\n" +
+          "class SiblingMock: SiblingA, SiblingB {\n}\n");
+    XcodeProjectFiles.addSourceFiles(new File(projectDir, "TestProject.xcodeproj/project.pbxproj"),
+                                     Arrays.asList("CycleMock.swift", "DiamondMock.swift", "SiblingMock.swift"));
+  }
+
+  public void testShouldResolveEachProtocolOnce_whenProtocolsInheritFromEachOther() {
+    assertEquals(Arrays.asList("CycleP", "CycleQ"), resolveNames("Cycle"));
+    assertEquals(Arrays.asList("The protocol 'CycleP' inherits from itself.", "The protocol 'CycleQ' inherits from itself."),
+                 resolver.getWarnings());
+  }
+
+  public void testShouldResolveSharedProtocolOnceAfterItsInheritors_whenHierarchyIsADiamond() {
+    assertEquals(Arrays.asList("DiamondTop", "DiamondLeft", "DiamondRight", "DiamondBottom"), resolveNames("Diamond"));
+    assertTrue(resolver.getWarnings().isEmpty());
+  }
+
+  public void testShouldOrderSiblingsByDiscovery_whenTheyInheritFromDifferentProtocols() {
+    assertEquals(Arrays.asList("SiblingA", "SiblingB", "SiblingA1", "SiblingB1"), resolveNames("Sibling"));
+  }
+
+  public void testShouldReadInheritedProtocolsFromWalkedGraph() {
+    resolveNames("Diamond");
+    assertEquals(Arrays.asList("DiamondLeft", "DiamondRight", "DiamondBottom"), getInheritedNames("Diamond", "DiamondTop"));
+    assertEquals(Arrays.asList("DiamondBottom"), getInheritedNames("Diamond", "DiamondLeft"));
+    assertTrue(getInheritedNames("Diamond", "DiamondBottom").isEmpty());
+  }
+
+  public void testShouldNotInheritFromItself_whenProtocolIsInACycle() {
+    resolveNames("Cycle");
+    assertEquals(Arrays.asList("CycleQ"), getInheritedNames("Cycle", "CycleP"));
+  }
+
+  private List<String> resolveNames(String name) {
+    SwiftClassDeclaration mock = PsiTreeUtil.findChildOfType(findMockFile(name), SwiftClassDeclaration.class);
+    return getNames(resolver.resolve(mock));
+  }
+
+  private List<String> getInheritedNames(String name, String protocolName) {
+    for (SwiftProtocolDeclaration protocol : PsiTreeUtil.findChildrenOfType(findMockFile(name), SwiftProtocolDeclaration.class)) {
+      if (protocolName.equals(protocol.getName())) {
+        return getNames(resolver.getInheritedProtocols(protocol));
+      }
+    }
+    fail("No protocol named " + protocolName);
+    return null;
+  }
+
+  private static List<String> getNames(List<SwiftProtocolDeclaration> protocols) {
+    List<String> names = new ArrayList<>();
+    for (SwiftProtocolDeclaration protocol : protocols) {
+      names.add(protocol.getName());
+    }
+    return names;
+  }
+
+  private static void write(File directory, String name, String text) throws IOException {
+    Files.write(new File(directory, name).toPath(), text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,99 @@
+package codes.seanhenry.helpers;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.PlatformTestCase;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.impl.CodeInsightTestFixtureImpl;
+import com.intellij.testFramework.fixtures.impl.TempDirTestFixtureImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Opens a copy of the test project so that mocks can be generated against real protocols.
+ */
+public abstract class MockGeneratorTestCase extends PlatformTestCase {
+
+  protected final String dataPath = "/Users/sean/source/plugins/community/MockGenerator/testData/TestProject";
+  protected CodeInsightTestFixture myFixture;
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      myFixture.tearDown();
+    } finally {
+      myFixture = null;
+      super.tearDown();
+    }
+  }
+
+  @Override
+  protected void setUpProject() throws Exception {
+    super.setUpProject();
+
+    TempDirTestFixtureImpl tempDirTestFixture = new TempDirTestFixtureImpl();
+    String projectDir = tempDirTestFixture.getTempDirPath();
+    copyFolder(new File(dataPath), new File(projectDir));
+    addFilesToProject(new File(projectDir));
+
+    String name = getClass().getName() + "." + getName();
+    myFixture = new CodeInsightTestFixtureImpl(new MyHeavyIdeaTestFixtureImpl(name, projectDir + "/TestProject.xcodeproj"), tempDirTestFixture);
+
+    myFixture.setUp();
+    myFixture.setTestDataPath(dataPath);
+  }
+
+  public Project getActiveProject() {
+    return myFixture.getProject();
+  }
+
+  /**
+   * Called before the project is opened so that tests can add generated files to it.
+   */
+  protected void addFilesToProject(File projectDir) throws IOException {
+  }
+
+  protected PsiFile findMockFile(String fileName) {
+    String mockFileName = fileName + "Mock.swift";
+    PsiFile[] files = FilenameIndex.getFilesByName(getActiveProject(), mockFileName, GlobalSearchScope.projectScope(getActiveProject()));
+    return files[0];
+  }
+
+  protected void copyFolder(File sourceFolder, File destinationFolder) throws IOException {
+    //Check if sourceFolder is a directory or file
+    //If sourceFolder is file; then copy the file directly to new location
+    if (sourceFolder.isDirectory())
+    {
+      //Verify if destinationFolder is already present; If not then create it
+      if (!destinationFolder.exists())
+      {
+        destinationFolder.mkdir();
+        //System.out.println("Directory created :: " + destinationFolder);
+      }
+
+      //Get all files from source directory
+      String files[] = sourceFolder.list();
+
+      //Iterate over all files and copy them to destinationFolder one by one
+      for (String file : files)
+      {
+        File srcFile = new File(sourceFolder, file);
+        File destFile = new File(destinationFolder, file);
+
+        //Recursive function call
+        copyFolder(srcFile, destFile);
+      }
+    }
+    else
+    {
+      //Copy the file content from one place to another
+      Files.copy(sourceFolder.toPath(), destinationFolder.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      //System.out.println("File copied :: " + destinationFolder);
+    }
+  }
+}
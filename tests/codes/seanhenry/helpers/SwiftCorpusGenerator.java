@@ -0,0 +1,284 @@
+package codes.seanhenry.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Writes Swift protocols much larger and deeper than the ones in the test project, each with an empty mock to generate.
+ * The same seed always gives the same corpus so budgets and timings can be compared between runs.
+ * Each corpus entry is written to {@code <Name>.swift} and its mock to {@code <Name>Mock.swift} with a caret inside the class.
+ */
+public class SwiftCorpusGenerator {
+
+  private static final String[] TYPES = {
+    "Int", "String", "Bool", "Double", "Data", "URL", "Date", "[String]", "[String: Int]", "Set<Int>", "(Int, String)", "AnyObject"
+  };
+  private static final String[] LABELS = {"_", "with", "for", "at", "from", "to", "by", "in"};
+  private static final String[] VERBS = {"load", "fetch", "update", "perform", "set", "remove", "animate", "present", "make", "find"};
+
+  private final Random random;
+  private final Map<String, String> files = new LinkedHashMap<>();
+  private final List<String> names = new ArrayList<>();
+
+  public SwiftCorpusGenerator(long seed) {
+    random = new Random(seed);
+  }
+
+  /**
+   * A protocol with a mix of read only, read write and optional properties, methods, closures and overloads.
+   */
+  public SwiftCorpusGenerator addLargeProtocol(String name, int memberCount) {
+    StringBuilder builder = startProtocol(name, "");
+    Set<String> signatures = new HashSet<>();
+    for (int i = 0; i < memberCount; i++) {
+      switch (random.nextInt(6)) {
+        case 0:
+          appendProperty(builder, "property" + i);
+          break;
+        case 1:
+          builder.append("    func ").append(randomVerb()).append(i).append("()\n");
+          break;
+        case 2:
+          appendMethod(builder, signatures, randomVerb() + i, 1 + random.nextInt(4), false);
+          break;
+        case 3:
+          appendMethod(builder, signatures, randomVerb() + i, random.nextInt(3), true);
+          break;
+        case 4:
+          // overloads an earlier name with different labels and types
+          appendMethod(builder, signatures, VERBS[random.nextInt(VERBS.length)], 1 + random.nextInt(3), false);
+          break;
+        default:
+          builder.append("    func ").append(randomVerb()).append(i).append("() -> ").append(randomType(true)).append("\n");
+      }
+    }
+    return add(name, endProtocol(builder), name);
+  }
+
+  /**
+   * A chain of protocols, each inheriting from the next, where the mock conforms to the first.
+   */
+  public SwiftCorpusGenerator addInheritanceChain(String name, int depth) {
+    StringBuilder builder = new StringBuilder(header());
+    for (int level = 0; level < depth; level++) {
+      String parent = level == depth - 1 ? "" : ": " + name + "Level" + (level + 1);
+      StringBuilder protocol = startProtocol(name + "Level" + level, parent);
+      appendMethod(protocol, new HashSet<>(), "level" + level, random.nextInt(3), random.nextBoolean());
+      appendProperty(protocol, "level" + level + "Property");
+      builder.append(endProtocol(protocol).substring(header().length())).append('\n');
+    }
+    return add(name, builder.toString(), name + "Level0");
+  }
+
+  /**
+   * Rows of protocols where each protocol inherits from every protocol in the row below it,
+   * so the members of the bottom row are reached through {@code width ^ (depth - 1)} paths.
+   */
+  public SwiftCorpusGenerator addDiamondLattice(String name, int width, int depth) {
+    StringBuilder builder = new StringBuilder(header());
+    for (int row = depth - 1; row >= 0; row--) {
+      for (int column = 0; column < width; column++) {
+        List<String> parents = new ArrayList<>();
+        if (row < depth - 1) {
+          for (int parent = 0; parent < width; parent++) {
+            parents.add(name + "Row" + (row + 1) + "Column" + parent);
+          }
+        }
+        StringBuilder protocol = startProtocol(name + "Row" + row + "Column" + column, parents.isEmpty() ? "" : ": " + String.join(", ", parents));
+        appendMethod(protocol, new HashSet<>(), "row" + row + "Column" + column, random.nextInt(3), false);
+        builder.append(endProtocol(protocol).substring(header().length())).append('\n');
+      }
+    }
+    StringBuilder top = startProtocol(name, ": " + String.join(", ", makeNames(name + "Row0Column", width)));
+    return add(name, builder.toString() + endProtocol(top).substring(header().length()), name);
+  }
+
+  /**
+   * A protocol where every method shares one of a few names and differs only by its labels and types.
+   */
+  public SwiftCorpusGenerator addOverloads(String name, int count) {
+    StringBuilder builder = startProtocol(name, "");
+    Set<String> signatures = new HashSet<>();
+    for (int i = 0; i < count; i++) {
+      appendMethod(builder, signatures, VERBS[i % 3], 1 + random.nextInt(4), random.nextInt(3) == 0);
+    }
+    return add(name, endProtocol(builder), name);
+  }
+
+  /**
+   * A protocol where every method takes closures, some of them optional, escaping or returning closures.
+   */
+  public SwiftCorpusGenerator addClosureProtocol(String name, int count) {
+    StringBuilder builder = startProtocol(name, "");
+    for (int i = 0; i < count; i++) {
+      builder.append("    func ").append(randomVerb()).append(i).append('(');
+      int closures = 1 + random.nextInt(3);
+      for (int j = 0; j < closures; j++) {
+        if (j > 0) {
+          builder.append(", ");
+        }
+        builder.append("closure").append(j).append(": ").append(randomClosure());
+      }
+      builder.append(')');
+      if (random.nextInt(4) == 0) {
+        builder.append(" -> ").append(randomClosureType());
+      }
+      builder.append('\n');
+    }
+    return add(name, endProtocol(builder), name);
+  }
+
+  /**
+   * A protocol whose methods take and return its associated types.
+   */
+  public SwiftCorpusGenerator addAssociatedTypeProtocol(String name, int associatedTypeCount, int memberCount) {
+    StringBuilder builder = startProtocol(name, "");
+    List<String> associatedTypes = makeNames("Type", associatedTypeCount);
+    for (String associatedType : associatedTypes) {
+      builder.append("    associatedtype ").append(associatedType).append('\n');
+    }
+    for (int i = 0; i < memberCount; i++) {
+      String parameterType = associatedTypes.get(random.nextInt(associatedTypeCount));
+      String returnType = associatedTypes.get(random.nextInt(associatedTypeCount));
+      builder.append("    func ").append(randomVerb()).append(i).append("(with value: ").append(parameterType)
+        .append(random.nextBoolean() ? "?" : "").append(") -> ").append(returnType).append('\n');
+    }
+    return add(name, endProtocol(builder), name);
+  }
+
+  /**
+   * @return the names of the corpus entries, which are also the names of their mock files without {@code Mock.swift}.
+   */
+  public List<String> getNames() {
+    return Collections.unmodifiableList(names);
+  }
+
+  /**
+   * @return the contents of each file by its name.
+   */
+  public Map<String, String> getFiles() {
+    return Collections.unmodifiableMap(files);
+  }
+
+  /**
+   * Writes every file to the directory.
+   * @return the names of the files written.
+   */
+  public List<String> writeTo(File directory) throws IOException {
+    for (Map.Entry<String, String> file : files.entrySet()) {
+      Files.write(new File(directory, file.getKey()).toPath(), file.getValue().getBytes(StandardCharsets.UTF_8));
+    }
+    return new ArrayList<>(files.keySet());
+  }
+
+  private SwiftCorpusGenerator add(String name, String protocols, String mockedProtocol) {
+    if (names.contains(name)) {
+      throw new IllegalArgumentException("The corpus already contains " + name);
+    }
+    names.add(name);
+    files.put(name + ".swift", protocols);
+    files.put(name + "Mock.swift", "class " + name + "Mock: " + mockedProtocol + " {\n<caret>\n}\n");
+    return this;
+  }
+
+  private static String header() {
+    return "import Foundation\n\n";
+  }
+
+  private static StringBuilder startProtocol(String name, String inheritanceClause) {
+    return new StringBuilder(header()).append("protocol ").append(name).append(inheritanceClause).append(" {\n");
+  }
+
+  private static String endProtocol(StringBuilder builder) {
+    return builder.append("}\n").toString();
+  }
+
+  private void appendProperty(StringBuilder builder, String name) {
+    String type = randomType(random.nextInt(3) == 0);
+    builder.append("    var ").append(name).append(": ").append(type).append(random.nextBoolean() ? " { get }\n" : " { get set }\n");
+  }
+
+  /**
+   * Appends a method with random labels and types, trying again when Swift would reject it as a redeclaration.
+   * Parameters are added after repeated clashes as there are only a few hundred methods with one parameter.
+   */
+  private void appendMethod(StringBuilder builder, Set<String> signatures, String name, int parameterCount, boolean returns) {
+    String method;
+    int attempts = 0;
+    do {
+      method = makeMethod(name, parameterCount + attempts++ / 8, returns);
+    } while (!signatures.add(method.replaceAll(" -> .*", "")));
+    builder.append(method);
+  }
+
+  private String makeMethod(String name, int parameterCount, boolean returns) {
+    StringBuilder builder = new StringBuilder("    func ").append(name).append('(');
+    for (int i = 0; i < parameterCount; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      String label = LABELS[random.nextInt(LABELS.length)];
+      if (random.nextBoolean()) {
+        builder.append(label).append(' ');
+      }
+      builder.append("value").append(i).append(": ").append(randomType(random.nextInt(4) == 0));
+    }
+    builder.append(')');
+    if (returns) {
+      builder.append(" -> ").append(randomType(random.nextBoolean()));
+    }
+    return builder.append('\n').toString();
+  }
+
+  private String randomClosure() {
+    switch (random.nextInt(4)) {
+      case 0:
+        return "(" + randomClosureType() + ")?";
+      case 1:
+        return "@escaping " + randomClosureType();
+      default:
+        return randomClosureType();
+    }
+  }
+
+  private String randomClosureType() {
+    StringBuilder builder = new StringBuilder("(");
+    int count = random.nextInt(4);
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(randomType(random.nextInt(3) == 0));
+    }
+    builder.append(") -> ");
+    builder.append(random.nextBoolean() ? "()" : randomType(false));
+    return builder.toString();
+  }
+
+  private String randomType(boolean optional) {
+    String type = TYPES[random.nextInt(TYPES.length)];
+    return optional ? type + "?" : type;
+  }
+
+  private String randomVerb() {
+    return VERBS[random.nextInt(VERBS.length)];
+  }
+
+  private static List<String> makeNames(String prefix, int count) {
+    List<String> names = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      names.add(prefix + i);
+    }
+    return names;
+  }
+}
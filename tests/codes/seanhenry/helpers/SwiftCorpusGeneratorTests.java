@@ -0,0 +1,94 @@
+package codes.seanhenry.helpers;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SwiftCorpusGeneratorTests extends TestCase {
+
+  private static final Pattern METHOD = Pattern.compile("^ {4}func (.*?)(?: -> .*)?$", Pattern.MULTILINE);
+
+  public void testShouldGenerateSameCorpus_whenSeedIsSame() {
+    assertEquals(createCorpus(42).getFiles(), createCorpus(42).getFiles());
+  }
+
+  public void testShouldGenerateDifferentCorpus_whenSeedIsDifferent() {
+    assertFalse(createCorpus(42).getFiles().equals(createCorpus(43).getFiles()));
+  }
+
+  public void testShouldWriteProtocolAndEmptyMockForEachEntry() {
+    SwiftCorpusGenerator corpus = new SwiftCorpusGenerator(1).addLargeProtocol("Large", 10);
+    assertEquals(Arrays.asList("Large"), corpus.getNames());
+    assertEquals(new HashSet<>(Arrays.asList("Large.swift", "LargeMock.swift")), corpus.getFiles().keySet());
+    assertEquals("class LargeMock: Large {\n<caret>\n}\n", corpus.getFiles().get("LargeMock.swift"));
+  }
+
+  public void testShouldGenerateEveryMemberOfLargeProtocol() {
+    String protocol = new SwiftCorpusGenerator(1).addLargeProtocol("Large", 10_000).getFiles().get("Large.swift");
+    assertEquals(10_000, countLines(protocol, "    func ") + countLines(protocol, "    var "));
+  }
+
+  public void testShouldNotRedeclareOverloads() {
+    String protocol = new SwiftCorpusGenerator(1).addOverloads("Overloads", 3_000).getFiles().get("Overloads.swift");
+    Set<String> signatures = new HashSet<>();
+    Matcher matcher = METHOD.matcher(protocol);
+    int count = 0;
+    while (matcher.find()) {
+      assertTrue(matcher.group(1), signatures.add(matcher.group(1)));
+      count++;
+    }
+    assertEquals(3_000, count);
+  }
+
+  public void testShouldInheritFromNextLevelOfChain() {
+    String protocols = new SwiftCorpusGenerator(1).addInheritanceChain("Chain", 200).getFiles().get("Chain.swift");
+    assertTrue(protocols.contains("protocol ChainLevel0: ChainLevel1 {"));
+    assertTrue(protocols.contains("protocol ChainLevel198: ChainLevel199 {"));
+    assertTrue(protocols.contains("protocol ChainLevel199 {"));
+    assertEquals("class ChainMock: ChainLevel0 {\n<caret>\n}\n", new SwiftCorpusGenerator(1).addInheritanceChain("Chain", 2).getFiles().get("ChainMock.swift"));
+  }
+
+  public void testShouldInheritFromWholeRowBelowInLattice() {
+    String protocols = new SwiftCorpusGenerator(1).addDiamondLattice("Lattice", 3, 2).getFiles().get("Lattice.swift");
+    assertTrue(protocols.contains("protocol LatticeRow0Column2: LatticeRow1Column0, LatticeRow1Column1, LatticeRow1Column2 {"));
+    assertTrue(protocols.contains("protocol LatticeRow1Column0 {"));
+    assertTrue(protocols.contains("protocol Lattice: LatticeRow0Column0, LatticeRow0Column1, LatticeRow0Column2 {"));
+  }
+
+  public void testShouldDeclareAssociatedTypes() {
+    String protocol = new SwiftCorpusGenerator(1).addAssociatedTypeProtocol("Associated", 20, 5).getFiles().get("Associated.swift");
+    assertEquals(20, countLines(protocol, "    associatedtype "));
+  }
+
+  public void testShouldRejectDuplicateNames() {
+    try {
+      new SwiftCorpusGenerator(1).addOverloads("Name", 1).addClosureProtocol("Name", 1);
+      fail("Expected duplicate name to be rejected");
+    } catch (IllegalArgumentException ignored) {
+    }
+  }
+
+  private static SwiftCorpusGenerator createCorpus(long seed) {
+    return new SwiftCorpusGenerator(seed)
+      .addLargeProtocol("Large", 100)
+      .addInheritanceChain("Chain", 10)
+      .addDiamondLattice("Lattice", 3, 3)
+      .addOverloads("Overloads", 100)
+      .addClosureProtocol("Closures", 50)
+      .addAssociatedTypeProtocol("Associated", 3, 20);
+  }
+
+  private static int countLines(String text, String prefix) {
+    int count = 0;
+    for (String line : text.split("\n")) {
+      if (line.startsWith(prefix)) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
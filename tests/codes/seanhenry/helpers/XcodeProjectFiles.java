@@ -0,0 +1,67 @@
+package codes.seanhenry.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Adds Swift files to the sources of a copied Xcode project so they are indexed when the project is opened.
+ */
+public class XcodeProjectFiles {
+
+  private static final Pattern MAIN_GROUP = Pattern.compile("mainGroup = (\\w+);");
+
+  /**
+   * @param projectFile the project.pbxproj file.
+   * @param fileNames the names of Swift files in the project directory.
+   */
+  public static void addSourceFiles(File projectFile, List<String> fileNames) throws IOException {
+    Path path = projectFile.toPath();
+    String project = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    StringBuilder buildFiles = new StringBuilder();
+    StringBuilder fileReferences = new StringBuilder();
+    StringBuilder groupChildren = new StringBuilder();
+    StringBuilder sources = new StringBuilder();
+    int id = 0;
+    for (String fileName : fileNames) {
+      String buildFileId = makeId(++id);
+      String fileReferenceId = makeId(++id);
+      buildFiles.append("\t\t").append(buildFileId).append(" /* ").append(fileName).append(" in Sources */ = ")
+        .append("{isa = PBXBuildFile; fileRef = ").append(fileReferenceId).append(" /* ").append(fileName).append(" */; };\n");
+      fileReferences.append("\t\t").append(fileReferenceId).append(" /* ").append(fileName).append(" */ = ")
+        .append("{isa = PBXFileReference; fileEncoding = 4; lastKnownFileType = sourcecode.swift; path = ")
+        .append(fileName).append("; sourceTree = \"<group>\"; };\n");
+      groupChildren.append("\t\t\t\t").append(fileReferenceId).append(" /* ").append(fileName).append(" */,\n");
+      sources.append("\t\t\t\t").append(buildFileId).append(" /* ").append(fileName).append(" in Sources */,\n");
+    }
+    Matcher mainGroup = MAIN_GROUP.matcher(project);
+    if (!mainGroup.find()) {
+      throw new IOException("Could not find the main group in " + projectFile);
+    }
+    project = insertAfter(project, "/* Begin PBXBuildFile section */\n", 0, buildFiles);
+    project = insertAfter(project, "/* Begin PBXFileReference section */\n", 0, fileReferences);
+    project = insertAfter(project, "children = (\n", project.indexOf("\t\t" + mainGroup.group(1) + " = {"), groupChildren);
+    project = insertAfter(project, "files = (\n", project.indexOf("isa = PBXSourcesBuildPhase;"), sources);
+    Files.write(path, project.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String insertAfter(String project, String marker, int from, CharSequence text) throws IOException {
+    int index = from < 0 ? -1 : project.indexOf(marker, from);
+    if (index < 0) {
+      throw new IOException("Could not find " + marker.trim() + " in the project file");
+    }
+    index += marker.length();
+    return project.substring(0, index) + text + project.substring(index);
+  }
+
+  private static String makeId(int id) {
+    // the ids in the test project start 35CDF so these cannot clash with them
+    return String.format(Locale.ROOT, "FEED%020X", id);
+  }
+}
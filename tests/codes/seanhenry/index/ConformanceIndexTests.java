@@ -0,0 +1,61 @@
+package codes.seanhenry.index;
+
+import codes.seanhenry.helpers.MockGeneratorTestCase;
+import codes.seanhenry.helpers.SwiftCorpusGenerator;
+import codes.seanhenry.helpers.XcodeProjectFiles;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+public class ConformanceIndexTests extends MockGeneratorTestCase {
+
+  private final SwiftCorpusGenerator corpus = new SwiftCorpusGenerator(1)
+    .addInheritanceChain("Chain", 5)
+    .addDiamondLattice("Lattice", 2, 2);
+
+  @Override
+  protected void addFilesToProject(File projectDir) throws IOException {
+    List<String> files = corpus.writeTo(projectDir);
+    XcodeProjectFiles.addSourceFiles(new File(projectDir, "TestProject.xcodeproj/project.pbxproj"), files);
+  }
+
+  public void testShouldFindMock_whenItConformsDirectly() {
+    assertEquals(Collections.singletonList("ChainMock"), findMockNames("ChainLevel0"));
+  }
+
+  public void testShouldFindMock_whenItConformsThroughInheritance() {
+    assertEquals(Collections.singletonList("ChainMock"), findMockNames("ChainLevel4"));
+  }
+
+  public void testShouldFindMockOnce_whenItConformsThroughSeveralProtocols() {
+    assertEquals(Collections.singletonList("LatticeMock"), findMockNames("LatticeRow1Column0"));
+  }
+
+  public void testShouldFindMocksOfEveryProtocol() {
+    assertEquals(new HashSet<>(Arrays.asList("ChainMock", "LatticeMock")),
+                 new HashSet<>(findMockNames("ChainLevel4", "LatticeRow1Column1")));
+  }
+
+  public void testShouldNotFindMocks_whenNoneConform() {
+    assertTrue(findMockNames("UnknownProtocol").isEmpty());
+  }
+
+  public void testShouldFindInheritingProtocols() {
+    Set<String> inheritors = new HashSet<>();
+    Map<VirtualFile, Set<String>> files = ConformanceIndex.findInheritors(Collections.singleton("ChainLevel2"), GlobalSearchScope.projectScope(getActiveProject()));
+    files.values().forEach(inheritors::addAll);
+    assertEquals(new HashSet<>(Arrays.asList("ChainLevel1", "ChainLevel0", "ChainMock")), inheritors);
+  }
+
+  private List<String> findMockNames(String... protocols) {
+    List<String> names = new ArrayList<>();
+    for (SwiftClassDeclaration mock : ConformanceIndex.findMocks(getActiveProject(), Arrays.asList(protocols))) {
+      names.add(mock.getName());
+    }
+    return names;
+  }
+}
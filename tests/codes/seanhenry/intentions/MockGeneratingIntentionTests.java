@@ -1,124 +1,232 @@
 package codes.seanhenry.intentions;
 
+import codes.seanhenry.generator.EmissionMode;
+import codes.seanhenry.generator.MockAnalysis;
+import codes.seanhenry.generator.MockBatchRegenerator;
+import codes.seanhenry.generator.MockGenerator;
+import codes.seanhenry.generator.ProtocolMembersCache;
 import codes.seanhenry.helpers.*;
+import codes.seanhenry.util.TypeResolutionCache;
 
 import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.command.WriteCommandAction;
-import com.intellij.openapi.project.Project;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.testFramework.*;
 import com.intellij.testFramework.fixtures.*;
-import com.intellij.testFramework.fixtures.impl.CodeInsightTestFixtureImpl;
-import com.intellij.testFramework.fixtures.impl.TempDirTestFixtureImpl;
+import com.intellij.util.ui.UIUtil;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+import com.jetbrains.swift.psi.SwiftStatement;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+public class MockGeneratingIntentionTests extends MockGeneratorTestCase {
+
+  private final String[] fileNames = {
+    "SimpleProtocol",
+    "OptionalProtocol",
+    "OverloadProtocol",
+    "PropertyProtocol",
+    "ClosureProtocol",
+    "RecursiveProtocol",
+    "MultipleProtocol",
+    "DeepInheritance",
+    "DiamondInheritanceProtocol",
+    "AssociatedTypeProtocol",
+    "MultiAssociatedTypeProtocol",
+    "UIKitProtocol",
+    "PublicProtocol",
+  };
 
-public class MockGeneratingIntentionTests extends PlatformTestCase {
+  public void testAll() throws Exception {
+    for (String fileName : fileNames) {
+      runTest(fileName);
+    }
+  }
 
-  private final String dataPath = "/Users/sean/source/plugins/community/MockGenerator/testData/TestProject";
-  private CodeInsightTestFixture myFixture;
+  public void testAll_inIncrementalMode() throws Exception {
+    for (String fileName : fileNames) {
+      PsiFile psiFile = findMockFile(fileName);
+      myFixture.configureFromExistingVirtualFile(psiFile.getVirtualFile());
+      SwiftClassDeclaration classDeclaration = PsiTreeUtil.findChildOfType(psiFile, SwiftClassDeclaration.class);
+      WriteCommandAction.runWriteCommandAction(getActiveProject(), () -> {
+        MockGenerator generator = new MockGenerator(MockAnalysis.analyse(classDeclaration));
+        generator.setEmissionMode(EmissionMode.INCREMENTAL);
+        generator.generate();
+      });
+      myFixture.checkResultByFile(fileName + "Mock_expected.swift", true);
+    }
+  }
+
+  public void testRegenerateAllMocks() throws Exception {
+    for (String fileName : fileNames) {
+      // removes the caret markers from the mock files
+      myFixture.configureFromExistingVirtualFile(findMockFile(fileName).getVirtualFile());
+    }
+    VirtualFile root = findMockFile(fileNames[0]).getVirtualFile().getParent();
+    List<VirtualFile> files = MockBatchRegenerator.findSwiftFiles(getActiveProject(), root);
+    new MockBatchRegenerator(getActiveProject()).regenerate(files, new EmptyProgressIndicator());
 
-  @Override
-  protected void tearDown() throws Exception {
-    try {
-      myFixture.tearDown();
-    } finally {
-      myFixture = null;
-      super.tearDown();
+    for (String fileName : fileNames) {
+      System.out.println("Checking regenerated mock for " + fileName);
+      myFixture.configureFromExistingVirtualFile(findMockFile(fileName).getVirtualFile());
+      myFixture.checkResultByFile(fileName + "Mock_expected.swift", true);
     }
   }
 
-  @Override
-  protected void setUpProject() throws Exception {
-    super.setUpProject();
+  public void testRegenerate_shouldNotChangeUpToDateMembers() throws Exception {
+    for (String fileName : fileNames) {
+      runTest(fileName);
+      PsiFile psiFile = findMockFile(fileName);
+      SwiftClassDeclaration classDeclaration = PsiTreeUtil.findChildOfType(psiFile, SwiftClassDeclaration.class);
+      List<SwiftStatement> statements = classDeclaration.getStatementList();
+      invokeIntention(psiFile);
+      myFixture.checkResultByFile(fileName + "Mock_expected.swift", true);
+      assertEquals(statements, classDeclaration.getStatementList());
+    }
+  }
 
-    TempDirTestFixtureImpl tempDirTestFixture = new TempDirTestFixtureImpl();
-    String projectDir = tempDirTestFixture.getTempDirPath();
-    copyFolder(new File(dataPath), new File(projectDir));
+  public void testRegenerate_shouldKeepHandWrittenCode() throws Exception {
+    runTest("SimpleProtocol");
+    PsiFile psiFile = findMockFile("SimpleProtocol");
+    Document document = myFixture.getEditor().getDocument();
+    WriteCommandAction.runWriteCommandAction(getActiveProject(), () -> {
+      int offset = document.getText().lastIndexOf('}');
+      document.insertString(offset, "// MockGenerator:keep\nvar handWritten = 1\n// MockGenerator:end-keep\n");
+      PsiDocumentManager.getInstance(getActiveProject()).commitDocument(document);
+    });
+    invokeIntention(psiFile);
+    assertTrue(document.getText().contains("var handWritten = 1"));
+  }
+
+  public void testRegenerate_shouldNotGatherProtocolMembersAgain_whenProtocolIsUnchanged() throws Exception {
+    runTest("DeepInheritance");
+    long misses = ProtocolMembersCache.getMissCount();
+    invokeIntention(findMockFile("DeepInheritance"));
+    assertEquals(misses, ProtocolMembersCache.getMissCount());
+  }
 
-    String name = getClass().getName() + "." + getName();
-    myFixture = new CodeInsightTestFixtureImpl(new MyHeavyIdeaTestFixtureImpl(name, projectDir + "/TestProject.xcodeproj"), tempDirTestFixture);
+  public void testAnalyse_shouldResolveEachTypeOnce_whenPsiIsUnchanged() throws Exception {
+    SwiftClassDeclaration classDeclaration = PsiTreeUtil.findChildOfType(findMockFile("ClosureProtocol"), SwiftClassDeclaration.class);
+    MockAnalysis.analyse(classDeclaration);
+    long misses = TypeResolutionCache.getMissCount();
+    MockAnalysis.analyse(classDeclaration);
+    assertEquals(misses, TypeResolutionCache.getMissCount());
+  }
 
-    myFixture.setUp();
-    myFixture.setTestDataPath(dataPath);
+  public void testGenerateInBackground_shouldRestart_whenPsiChangesDuringAnalysis() throws Exception {
+    PsiFile psiFile = findMockFile("SimpleProtocol");
+    myFixture.configureFromExistingVirtualFile(psiFile.getVirtualFile());
+    Document protocolDocument = findProtocolDocument("SimpleProtocol");
+    ChangingIntention intention = new ChangingIntention(1, analyses -> {
+      if (analyses == 1) {
+        insertAtEndOfProtocol(protocolDocument, "func addedDuringAnalysis()\n");
+      }
+    });
+    invokeIntentionInBackground(intention, psiFile);
+    Document document = myFixture.getEditor().getDocument();
+    waitFor(() -> document.getText().contains("invokedAddedDuringAnalysis"));
+    assertEquals(2, intention.analyses);
+    assertTrue(document.getText().contains("func addedDuringAnalysis() {"));
   }
 
-  public Project getActiveProject() {
-    return myFixture.getProject();
+  public void testGenerateInBackground_shouldGiveUp_whenPsiKeepsChanging() throws Exception {
+    PsiFile psiFile = findMockFile("SimpleProtocol");
+    myFixture.configureFromExistingVirtualFile(psiFile.getVirtualFile());
+    Document protocolDocument = findProtocolDocument("SimpleProtocol");
+    ChangingIntention intention = new ChangingIntention(2, analyses -> insertAtEndOfProtocol(protocolDocument, "\n"));
+    invokeIntentionInBackground(intention, psiFile);
+    waitFor(() -> intention.analyses == 3);
+    UIUtil.dispatchAllInvocationEvents();
+    assertEquals(3, intention.analyses);
+    assertFalse(myFixture.getEditor().getDocument().getText().contains("invokedSimpleMethod"));
   }
 
-  public void testAll() throws Exception {
-    String[] fileNames = {
-      "SimpleProtocol",
-      "OptionalProtocol",
-      "OverloadProtocol",
-      "PropertyProtocol",
-      "ClosureProtocol",
-      "RecursiveProtocol",
-      "MultipleProtocol",
-      "DeepInheritance",
-      "DiamondInheritanceProtocol",
-      "AssociatedTypeProtocol",
-      "MultiAssociatedTypeProtocol",
-      "UIKitProtocol",
-      "PublicProtocol",
-    };
+  public void testGenerateInBackground_shouldNotRestart_whenUnrelatedFileChanges() throws Exception {
+    PsiFile psiFile = findMockFile("SimpleProtocol");
+    myFixture.configureFromExistingVirtualFile(psiFile.getVirtualFile());
+    Document unrelatedDocument = findProtocolDocument("OptionalProtocol");
+    ChangingIntention intention = new ChangingIntention(1, analyses -> insertAtEndOfProtocol(unrelatedDocument, "\n"));
+    invokeIntentionInBackground(intention, psiFile);
+    Document document = myFixture.getEditor().getDocument();
+    waitFor(() -> document.getText().contains("invokedSimpleMethod"));
+    assertEquals(1, intention.analyses);
+  }
 
-    for (String fileName : fileNames) {
-      runTest(fileName);
+  /**
+   * Changes the code after each background analysis, before the intention checks whether it is still up to date.
+   */
+  private static class ChangingIntention extends MockGeneratingIntention {
+
+    private final IntConsumer change;
+    private int analyses;
+
+    private ChangingIntention(int maxRestarts, IntConsumer change) {
+      super(maxRestarts);
+      this.change = change;
+    }
+
+    @Override
+    protected void afterAnalysis() {
+      change.accept(++analyses);
+    }
+  }
+
+  private Document findProtocolDocument(String fileName) {
+    PsiFile[] files = FilenameIndex.getFilesByName(getActiveProject(), fileName + ".swift", GlobalSearchScope.projectScope(getActiveProject()));
+    return PsiDocumentManager.getInstance(getActiveProject()).getDocument(files[0]);
+  }
+
+  /**
+   * The protocol comes first in its file and its methods have no bodies, so it ends at the first closing brace.
+   */
+  private void insertAtEndOfProtocol(Document document, String text) {
+    WriteCommandAction.runWriteCommandAction(getActiveProject(), () -> {
+      document.insertString(document.getText().indexOf('}'), text);
+      PsiDocumentManager.getInstance(getActiveProject()).commitDocument(document);
+    });
+  }
+
+  /**
+   * Runs the intention without write access, as the editor does, so it analyses in the background.
+   */
+  private void invokeIntentionInBackground(MockGeneratingIntention intention, PsiFile psiFile) {
+    PsiElement element = psiFile.findElementAt(myFixture.getCaretOffset());
+    assertTrue(intention.isAvailable(getActiveProject(), myFixture.getEditor(), element));
+    assertFalse(ApplicationManager.getApplication().isWriteAccessAllowed());
+    intention.invoke(getActiveProject(), myFixture.getEditor(), element);
+  }
+
+  private static void waitFor(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue("Timed out waiting for the mock to be generated", System.currentTimeMillis() < deadline);
+      UIUtil.dispatchAllInvocationEvents();
     }
   }
 
   private void runTest(String fileName) throws IOException {
     String expectedFileName = fileName + "Mock_expected.swift";
-    String mockFileName = fileName + "Mock.swift";
     System.out.println("Running test for " + fileName);
-    PsiFile[] files = FilenameIndex.getFilesByName(getActiveProject(), mockFileName, GlobalSearchScope.projectScope(getActiveProject()));
-    PsiFile psiFile = files[0];
+    PsiFile psiFile = findMockFile(fileName);
     VirtualFile file = psiFile.getVirtualFile();
     myFixture.configureFromExistingVirtualFile(file);
 
-    IntentionAction action = myFixture.findSingleIntention("Generate mock");
-
-    WriteCommandAction.runWriteCommandAction(getActiveProject(), () -> action.invoke(getActiveProject(), myFixture.getEditor(), psiFile));
+    invokeIntention(psiFile);
     myFixture.checkResultByFile(expectedFileName, true);
   }
 
-  private void copyFolder(File sourceFolder, File destinationFolder) throws IOException {
-    //Check if sourceFolder is a directory or file
-    //If sourceFolder is file; then copy the file directly to new location
-    if (sourceFolder.isDirectory())
-    {
-      //Verify if destinationFolder is already present; If not then create it
-      if (!destinationFolder.exists())
-      {
-        destinationFolder.mkdir();
-        //System.out.println("Directory created :: " + destinationFolder);
-      }
-
-      //Get all files from source directory
-      String files[] = sourceFolder.list();
-
-      //Iterate over all files and copy them to destinationFolder one by one
-      for (String file : files)
-      {
-        File srcFile = new File(sourceFolder, file);
-        File destFile = new File(destinationFolder, file);
-
-        //Recursive function call
-        copyFolder(srcFile, destFile);
-      }
-    }
-    else
-    {
-      //Copy the file content from one place to another
-      Files.copy(sourceFolder.toPath(), destinationFolder.toPath(), StandardCopyOption.REPLACE_EXISTING);
-      //System.out.println("File copied :: " + destinationFolder);
-    }
+  private void invokeIntention(PsiFile psiFile) {
+    IntentionAction action = myFixture.findSingleIntention("Generate mock");
+    WriteCommandAction.runWriteCommandAction(getActiveProject(), () -> action.invoke(getActiveProject(), myFixture.getEditor(), psiFile));
   }
 }
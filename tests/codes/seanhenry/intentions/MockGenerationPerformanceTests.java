@@ -0,0 +1,205 @@
+package codes.seanhenry.intentions;
+
+import codes.seanhenry.generator.MockAnalysis;
+import codes.seanhenry.generator.MockClassUpdater;
+import codes.seanhenry.generator.ProtocolMembersCache;
+import codes.seanhenry.generator.ProtocolModelCache;
+import codes.seanhenry.helpers.MockGeneratorTestCase;
+import codes.seanhenry.helpers.SwiftCorpusGenerator;
+import codes.seanhenry.helpers.XcodeProjectFiles;
+import codes.seanhenry.util.GenerationStatistics;
+import codes.seanhenry.util.GenerationStatistics.Counter;
+import codes.seanhenry.util.TypeResolutionCache;
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.jetbrains.swift.psi.SwiftClassDeclaration;
+import junit.framework.AssertionFailedError;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates each test project mock and a seeded corpus of huge and deeply inherited protocols,
+ * and fails when a mock costs more than its budget.
+ * Budgets grow with the number of members emitted and protocols mocked so they hold for small and large protocols alike.
+ */
+public class MockGenerationPerformanceTests extends MockGeneratorTestCase {
+
+  private static final SwiftCorpusGenerator corpus = new SwiftCorpusGenerator(20170301)
+    .addLargeProtocol("LargeProtocol", 2_000)
+    .addLargeProtocol("HugeProtocol", 10_000)
+    .addInheritanceChain("DeepChain", 200)
+    .addDiamondLattice("DiamondLattice", 4, 4)
+    .addOverloads("ManyOverloads", 3_000)
+    .addClosureProtocol("ManyClosures", 1_000)
+    .addAssociatedTypeProtocol("ManyAssociatedTypes", 20, 500);
+
+  private static final String[] fixtureNames = {
+    "SimpleProtocol",
+    "OptionalProtocol",
+    "OverloadProtocol",
+    "PropertyProtocol",
+    "ClosureProtocol",
+    "RecursiveProtocol",
+    "MultipleProtocol",
+    "DeepInheritance",
+    "DiamondInheritanceProtocol",
+    "AssociatedTypeProtocol",
+    "MultiAssociatedTypeProtocol",
+    "UIKitProtocol",
+    "PublicProtocol",
+  };
+
+  // each budget is a fixed allowance for the class plus allowances per member emitted and per protocol mocked
+  private static final Budget RESOLVE_CALLS = new Budget(Counter.RESOLVE_CALLS, 20, 2, 4);
+  private static final Budget PSI_ELEMENTS_CREATED = new Budget(Counter.PSI_ELEMENTS_CREATED, 4, 1, 0);
+  private static final int FIXED_MILLIS = 150;
+  private static final double MILLIS_PER_MEMBER = 1.5;
+
+  private static class Budget {
+    private final Counter counter;
+    private final long fixed;
+    private final long perMember;
+    private final long perProtocol;
+
+    private Budget(Counter counter, long fixed, long perMember, long perProtocol) {
+      this.counter = counter;
+      this.fixed = fixed;
+      this.perMember = perMember;
+      this.perProtocol = perProtocol;
+    }
+
+    private long getLimit(long members, long protocols) {
+      return fixed + perMember * members + perProtocol * protocols;
+    }
+  }
+
+  @Override
+  protected void addFilesToProject(File projectDir) throws IOException {
+    List<String> files = corpus.writeTo(projectDir);
+    XcodeProjectFiles.addSourceFiles(new File(projectDir, "TestProject.xcodeproj/project.pbxproj"), files);
+  }
+
+  public void testResolveCallsAndPsiElements_shouldBeWithinBudget() throws Exception {
+    List<String> failures = new ArrayList<>();
+    for (String fileName : getFileNames()) {
+      String failure = checkCounters(fileName);
+      if (failure != null) {
+        failures.add(failure);
+      }
+    }
+    if (!failures.isEmpty()) {
+      fail(String.join("\n", failures));
+    }
+  }
+
+  public void testGenerationTime_shouldBeWithinBudget() throws Exception {
+    for (String fileName : getFileNames()) {
+      checkTime(fileName);
+    }
+  }
+
+  private static List<String> getFileNames() {
+    List<String> fileNames = new ArrayList<>(Arrays.asList(fixtureNames));
+    fileNames.addAll(corpus.getNames());
+    return fileNames;
+  }
+
+  private String checkCounters(String fileName) {
+    PsiFile psiFile = findMockFile(fileName);
+    myFixture.configureFromExistingVirtualFile(psiFile.getVirtualFile());
+    String shell = myFixture.getEditor().getDocument().getText();
+    int caretOffset = myFixture.getEditor().getCaretModel().getOffset();
+    GenerationStatistics statistics = GenerationStatistics.getInstance();
+    statistics.reset();
+    invokeIntention(psiFile);
+    long members = statistics.getCount(Counter.MEMBERS_EMITTED);
+    String report = getBreakdown();
+    Map<Budget, Long> counts = new LinkedHashMap<>();
+    for (Budget budget : Arrays.asList(RESOLVE_CALLS, PSI_ELEMENTS_CREATED)) {
+      counts.put(budget, statistics.getCount(budget.counter));
+    }
+    // counted after reading the statistics as analysing the mock again resolves its protocols
+    long protocols = countProtocols(psiFile, caretOffset);
+    StringBuilder exceeded = new StringBuilder();
+    for (Budget budget : counts.keySet()) {
+      long count = counts.get(budget);
+      long limit = budget.getLimit(members, protocols);
+      if (count > limit) {
+        exceeded.append(String.format("  %s: %d, budget %d (%d + %d per member + %d per protocol)%n",
+                                      budget.counter, count, limit, budget.fixed, budget.perMember, budget.perProtocol));
+      }
+    }
+    String failure = exceeded.length() == 0 ? null :
+                     fileName + " exceeded its budget for " + members + " member(s) and " + protocols + " protocol(s):\n" + exceeded + report;
+    restore(shell, caretOffset);
+    return failure;
+  }
+
+  private void checkTime(String fileName) {
+    PsiFile psiFile = findMockFile(fileName);
+    myFixture.configureFromExistingVirtualFile(psiFile.getVirtualFile());
+    String shell = myFixture.getEditor().getDocument().getText();
+    int caretOffset = myFixture.getEditor().getCaretModel().getOffset();
+    GenerationStatistics statistics = GenerationStatistics.getInstance();
+    statistics.reset();
+    invokeIntention(psiFile);
+    long members = statistics.getCount(Counter.MEMBERS_EMITTED);
+    int expectedMillis = (int)(FIXED_MILLIS + MILLIS_PER_MEMBER * members);
+    try {
+      PlatformTestUtil.startPerformanceTest("Generate " + fileName + "Mock", expectedMillis, () -> invokeIntention(psiFile))
+        .setup(() -> {
+          restore(shell, caretOffset);
+          statistics.reset();
+        })
+        .attempts(3)
+        .assertTiming();
+    } catch (AssertionFailedError e) {
+      AssertionFailedError error = new AssertionFailedError(e.getMessage() + "\n" + fileName + " emitted " + members + " member(s):\n" + getBreakdown());
+      error.initCause(e);
+      throw error;
+    } finally {
+      restore(shell, caretOffset);
+    }
+  }
+
+  private static int countProtocols(PsiFile psiFile, int caretOffset) {
+    SwiftClassDeclaration classDeclaration = PsiTreeUtil.getParentOfType(psiFile.findElementAt(caretOffset), SwiftClassDeclaration.class);
+    return classDeclaration == null ? 0 : MockAnalysis.analyse(classDeclaration).getProtocols().size();
+  }
+
+  private static String getBreakdown() {
+    return GenerationStatistics.getInstance().getReport()
+           + TypeResolutionCache.getStatistics() + "\n"
+           + ProtocolMembersCache.getStatistics() + "\n"
+           + ProtocolModelCache.getStatistics() + "\n"
+           + MockClassUpdater.getStatistics() + "\n";
+  }
+
+  /**
+   * Puts back the empty mock and the caret so the mock can be generated again.
+   */
+  private void restore(String text, int caretOffset) {
+    Document document = myFixture.getEditor().getDocument();
+    WriteCommandAction.runWriteCommandAction(getActiveProject(), () -> {
+      document.setText(text);
+      PsiDocumentManager.getInstance(getActiveProject()).commitDocument(document);
+    });
+    myFixture.getEditor().getCaretModel().moveToOffset(caretOffset);
+  }
+
+  private void invokeIntention(PsiFile psiFile) {
+    IntentionAction action = myFixture.findSingleIntention("Generate mock");
+    WriteCommandAction.runWriteCommandAction(getActiveProject(), () -> action.invoke(getActiveProject(), myFixture.getEditor(), psiFile));
+  }
+}
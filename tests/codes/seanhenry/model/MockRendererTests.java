@@ -0,0 +1,319 @@
+package codes.seanhenry.model;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MockRendererTests extends TestCase {
+
+  private List<Property> properties;
+  private List<Method> methods;
+  private List<String> associatedTypes;
+  private String scope;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    properties = new ArrayList<>();
+    methods = new ArrayList<>();
+    associatedTypes = new ArrayList<>();
+    scope = "";
+  }
+
+  public void testShouldRenderNothing_whenMockIsEmpty() {
+    assertRendered();
+    assertNull(new MockRenderer().renderGenericParameterClause(createMock()));
+  }
+
+  public void testShouldRenderReadWriteProperty() {
+    properties.add(new Property("name", "", "String?", "String", true, true));
+    assertRendered(
+      "var invokedName: String?",
+      "var stubbedName: String!",
+      "var name: String? {\nset {\ninvokedName = newValue\n}\nget {\nreturn stubbedName\n}\n}"
+    );
+  }
+
+  public void testShouldRenderReadOnlyProperty() {
+    properties.add(new Property("name", "weak", "AnyObject?", "AnyObject", true, false));
+    assertRendered(
+      "var stubbedName: AnyObject!",
+      "weak var name: AnyObject? {\nreturn stubbedName\n}"
+    );
+  }
+
+  public void testShouldRenderMethodWithoutParameters() {
+    methods.add(new Method("method", Collections.emptyList()));
+    assertRendered(
+      "var invokedMethod = false",
+      "func method() {\ninvokedMethod = true\n}"
+    );
+  }
+
+  public void testShouldRenderMethodWithParametersAndReturnType() {
+    methods.add(new Method("method", Arrays.asList(
+      createParameter("forKey key", "key", "String"),
+      new Parameter("value: Int?", "value", "value", "", "Int?", "Int", true, null)
+    ), "String", "String", false, false));
+    assertRendered(
+      "var invokedMethod = false",
+      "var invokedMethodParameters: (key: String, value: Int?)?",
+      "var stubbedMethodResult: String!",
+      "func method(forKey key: String, value: Int?) -> String {\n" +
+      "invokedMethod = true\n" +
+      "invokedMethodParameters = (key, value)\n" +
+      "return stubbedMethodResult\n" +
+      "}"
+    );
+  }
+
+  public void testShouldPadSingleCapturedParameter() {
+    methods.add(new Method("method", Collections.singletonList(createParameter("param", "param", "String"))));
+    assertRendered(
+      "var invokedMethod = false",
+      "var invokedMethodParameters: (param: String, Void)?",
+      "func method(param: String) {\ninvokedMethod = true\ninvokedMethodParameters = (param, ())\n}"
+    );
+  }
+
+  public void testShouldCallClosures() {
+    methods.add(new Method("multi", Arrays.asList(
+      createClosureParameter("animations", "() -> ()", new Closure(Collections.emptyList(), false)),
+      createClosureParameter("completion", "((Bool, Int) -> ())?", new Closure(Arrays.asList("Bool", "Int"), true))
+    )));
+    assertRendered(
+      "var invokedMulti = false",
+      "var stubbedMultiCompletionResult: (Bool, Int)?",
+      "func multi(animations: () -> (), completion: ((Bool, Int) -> ())?) {\n" +
+      "invokedMulti = true\n" +
+      "animations()\n" +
+      "if let result = stubbedMultiCompletionResult {\n" +
+      "completion?(result.0, result.1)\n" +
+      "}\n" +
+      "}"
+    );
+  }
+
+  public void testShouldWrapReturnedClosure() {
+    methods.add(new Method("closure", Collections.emptyList(), "(Int) -> ()", "(Int) -> ()", false, true));
+    assertRendered(
+      "var invokedClosure = false",
+      "var stubbedClosureResult: ((Int) -> ())!",
+      "func closure() -> (Int) -> () {\ninvokedClosure = true\nreturn stubbedClosureResult\n}"
+    );
+  }
+
+  public void testShouldGiveOverloadsUniqueNames() {
+    methods.add(new Method("method", Collections.singletonList(createParameter("a", "a", "Int"))));
+    methods.add(new Method("method", Collections.singletonList(createParameter("b", "b", "Int"))));
+    List<String> members = new MockRenderer().render(createMock());
+    assertTrue(members.contains("var invokedMethodA = false"));
+    assertTrue(members.contains("var invokedMethodB = false"));
+  }
+
+  public void testShouldPrependScope() {
+    scope = "public ";
+    properties.add(new Property("name", "", "String", "String", false, false));
+    methods.add(new Method("method", Collections.emptyList()));
+    assertRendered(
+      "public var stubbedName: String!",
+      "public var name: String {\nreturn stubbedName\n}",
+      "public var invokedMethod = false",
+      "public func method() {\ninvokedMethod = true\n}"
+    );
+  }
+
+  public void testShouldUseNamingConvention() {
+    NamingConvention names = new NamingConvention(
+      "{name}WasSet", "{name}Stub", "{name}Called", "{name}CallCount", "{name}ReceivedArgs", "{name}ReturnValue", "{method}{Param}Args"
+    );
+    properties.add(new Property("name", "", "String", "String", false, true));
+    methods.add(new Method("run", Arrays.asList(
+      createParameter("value", "value", "Int"),
+      createClosureParameter("completion", "(Bool) -> ()", new Closure(Collections.singletonList("Bool"), false))
+    ), "Int", "Int", false, false));
+    List<String> members = new MockRenderer(names).render(createMock());
+    assertTrue(members.contains("var nameWasSet: String?"));
+    assertTrue(members.contains("var nameStub: String!"));
+    assertTrue(members.contains("var runCalled = false"));
+    assertTrue(members.contains("var runReceivedArgs: (value: Int, Void)?"));
+    assertTrue(members.contains("var runCompletionArgs: Bool?"));
+    assertTrue(members.contains("var runReturnValue: Int!"));
+  }
+
+  public void testShouldRenderParameterStructs_whenTypeCheckerFriendly() {
+    methods.add(new Method("method", Arrays.asList(
+      createParameter("forKey key", "key", "String"),
+      new Parameter("value: Int?", "value", "value", "", "Int?", "Int", true, null),
+      createClosureParameter("completion", "(Bool, Int) -> ()", new Closure(Arrays.asList("Bool", "Int"), false))
+    ), "String", "String", false, false));
+    assertTypeCheckerFriendlyRendered(
+      "var invokedMethod: Bool = false",
+      "struct InvokedMethodParameters {\nlet key: String\nlet value: Int?\n}",
+      "var invokedMethodParameters: InvokedMethodParameters?",
+      "struct StubbedMethodCompletionResult {\nlet argument0: Bool\nlet argument1: Int\n}",
+      "var stubbedMethodCompletionResult: StubbedMethodCompletionResult?",
+      "var stubbedMethodResult: String?",
+      "func method(forKey key: String, value: Int?, completion: (Bool, Int) -> ()) -> String {\n" +
+      "invokedMethod = true\n" +
+      "invokedMethodParameters = InvokedMethodParameters(key: key, value: value)\n" +
+      "if let result: StubbedMethodCompletionResult = stubbedMethodCompletionResult {\n" +
+      "completion(result.argument0, result.argument1)\n" +
+      "}\n" +
+      "return stubbedMethodResult!\n" +
+      "}"
+    );
+  }
+
+  public void testShouldNotUnwrapOptionalStubs_whenTypeCheckerFriendly() {
+    scope = "public ";
+    properties.add(new Property("name", "", "String?", "String", true, false));
+    methods.add(new Method("method", Collections.singletonList(createParameter("a", "a", "Int")), "Int?", "Int", true, false));
+    assertTypeCheckerFriendlyRendered(
+      "public var stubbedName: String?",
+      "public var name: String? {\nreturn stubbedName\n}",
+      "public var invokedMethod: Bool = false",
+      "public struct InvokedMethodParameters {\npublic let a: Int\n}",
+      "public var invokedMethodParameters: InvokedMethodParameters?",
+      "public var stubbedMethodResult: Int?",
+      "public func method(a: Int) -> Int? {\n" +
+      "invokedMethod = true\n" +
+      "invokedMethodParameters = InvokedMethodParameters(a: a)\n" +
+      "return stubbedMethodResult\n" +
+      "}"
+    );
+  }
+
+  public void testShouldStoreClosureArgumentsInStructs_whenTypeCheckerFriendly() {
+    scope = "public ";
+    methods.add(new Method("load", Arrays.asList(
+      createClosureParameter("progress", "(Double) -> ()", new Closure(Collections.singletonList("Double"), false)),
+      createClosureParameter("completion", "((Data?, Int, Error?) -> ())?", new Closure(Arrays.asList("Data?", "Int", "Error?"), true))
+    )));
+    assertTypeCheckerFriendlyRendered(
+      "public var invokedLoad: Bool = false",
+      "public var stubbedLoadProgressResult: Double?",
+      "public struct StubbedLoadCompletionResult {\npublic let argument0: Data?\npublic let argument1: Int\npublic let argument2: Error?\n}",
+      "public var stubbedLoadCompletionResult: StubbedLoadCompletionResult?",
+      "public func load(progress: (Double) -> (), completion: ((Data?, Int, Error?) -> ())?) {\n" +
+      "invokedLoad = true\n" +
+      "if let result: Double = stubbedLoadProgressResult {\n" +
+      "progress(result)\n" +
+      "}\n" +
+      "if let result: StubbedLoadCompletionResult = stubbedLoadCompletionResult {\n" +
+      "completion?(result.argument0, result.argument1, result.argument2)\n" +
+      "}\n" +
+      "}"
+    );
+  }
+
+  public void testShouldRecordInvocationsInsideOneLock_whenThreadSafe() {
+    properties.add(new Property("name", "", "String", "String", false, true));
+    methods.add(new Method("run", Arrays.asList(
+      createParameter("value", "value", "Int"),
+      createClosureParameter("completion", "(Bool) -> ()", new Closure(Collections.singletonList("Bool"), false))
+    ), "Int", "Int", false, false));
+    MockRenderer renderer = new MockRenderer();
+    renderer.setThreadSafe(true);
+    List<String> expected = new ArrayList<>();
+    expected.add("private let mockLock = NSLock()");
+    expected.addAll(createLockedVariable("invokedName", "String?", ""));
+    expected.addAll(createLockedVariable("stubbedName", "String!", ""));
+    expected.add("var name: String {\n" +
+                 "set {\nmockLock.lock()\n_invokedName = newValue\nmockLock.unlock()\n}\n" +
+                 "get {\nmockLock.lock()\nlet stubbedName: String! = _stubbedName\nmockLock.unlock()\nreturn stubbedName\n}\n" +
+                 "}");
+    expected.addAll(createLockedVariable("invokedRun", "Bool", " = false"));
+    expected.addAll(createLockedVariable("invokedRunCount", "Int", " = 0"));
+    expected.addAll(createLockedVariable("invokedRunParameters", "(value: Int, Void)?", ""));
+    expected.addAll(createLockedVariable("stubbedRunCompletionResult", "Bool?", ""));
+    expected.addAll(createLockedVariable("stubbedRunResult", "Int!", ""));
+    expected.add("func run(value: Int, completion: (Bool) -> ()) -> Int {\n" +
+                 "mockLock.lock()\n" +
+                 "_invokedRun = true\n" +
+                 "_invokedRunCount += 1\n" +
+                 "_invokedRunParameters = (value, ())\n" +
+                 "let stubbedRunCompletionResult: Bool? = _stubbedRunCompletionResult\n" +
+                 "let stubbedRunResult: Int! = _stubbedRunResult\n" +
+                 "mockLock.unlock()\n" +
+                 "if let result = stubbedRunCompletionResult {\n" +
+                 "completion(result)\n" +
+                 "}\n" +
+                 "return stubbedRunResult\n" +
+                 "}");
+    assertEquals(expected, renderer.render(createMock()));
+    assertTrue(renderer.requiresFoundation());
+  }
+
+  public void testShouldLockStubReads_whenThreadSafeAndTypeCheckerFriendly() {
+    properties.add(new Property("name", "", "String", "String", false, false));
+    MockRenderer renderer = new MockRenderer();
+    renderer.setThreadSafe(true);
+    renderer.setTypeCheckerFriendly(true);
+    List<String> expected = new ArrayList<>();
+    expected.add("private let mockLock = NSLock()");
+    expected.addAll(createLockedVariable("stubbedName", "String?", ""));
+    expected.add("var name: String {\nmockLock.lock()\nlet stubbedName: String? = _stubbedName\nmockLock.unlock()\nreturn stubbedName!\n}");
+    assertEquals(expected, renderer.render(createMock()));
+  }
+
+  public void testShouldUseNamingConventionForInvocationCount_whenThreadSafe() {
+    NamingConvention names = new NamingConvention(
+      "{name}WasSet", "{name}Stub", "{name}Called", "{name}CallCount", "{name}ReceivedArgs", "{name}ReturnValue", "{method}{Param}Args"
+    );
+    methods.add(new Method("run", Collections.emptyList()));
+    MockRenderer renderer = new MockRenderer(names);
+    renderer.setThreadSafe(true);
+    List<String> members = renderer.render(createMock());
+    assertTrue(members.containsAll(createLockedVariable("runCallCount", "Int", " = 0")));
+    assertTrue(members.contains("func run() {\nmockLock.lock()\n_runCalled = true\n_runCallCount += 1\nmockLock.unlock()\n}"));
+  }
+
+  public void testShouldNotAddLock_whenMockIsEmpty() {
+    MockRenderer renderer = new MockRenderer();
+    renderer.setThreadSafe(true);
+    assertTrue(renderer.render(createMock()).isEmpty());
+    assertFalse(renderer.requiresFoundation());
+  }
+
+  public void testShouldRenderGenericParameterClause() {
+    associatedTypes.add("A");
+    associatedTypes.add("B");
+    assertEquals("<A, B>", new MockRenderer().renderGenericParameterClause(createMock()));
+  }
+
+  private Parameter createParameter(String labels, String name, String type) {
+    return new Parameter(labels + ": " + type, labels, name, "", type, type, false, null);
+  }
+
+  private Parameter createClosureParameter(String name, String type, Closure closure) {
+    return new Parameter(name + ": " + type, name, name, "", type, type, false, closure);
+  }
+
+  private static List<String> createLockedVariable(String name, String type, String initialiser) {
+    return Arrays.asList(
+      "private var _" + name + ": " + type + initialiser,
+      "var " + name + ": " + type + " {\n" +
+      "get {\nmockLock.lock()\ndefer {\nmockLock.unlock()\n}\nreturn _" + name + "\n}\n" +
+      "set {\nmockLock.lock()\n_" + name + " = newValue\nmockLock.unlock()\n}\n" +
+      "}"
+    );
+  }
+
+  private MockClass createMock() {
+    return new MockClass(scope, associatedTypes, properties, methods);
+  }
+
+  private void assertRendered(String... expected) {
+    assertEquals(Arrays.asList(expected), new MockRenderer().render(createMock()));
+  }
+
+  private void assertTypeCheckerFriendlyRendered(String... expected) {
+    MockRenderer renderer = new MockRenderer();
+    renderer.setTypeCheckerFriendly(true);
+    assertEquals(Arrays.asList(expected), renderer.render(createMock()));
+  }
+}
@@ -0,0 +1,118 @@
+package codes.seanhenry.model;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ProtocolMemberMergerTests extends TestCase {
+
+  private ProtocolMemberMerger merger;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    merger = new ProtocolMemberMerger();
+  }
+
+  public void testShouldMergeSameMethodFromDifferentProtocols() {
+    merger.add(createProtocol("A", Collections.emptyList(), Collections.singletonList(new Method("reset", Collections.emptyList()))));
+    merger.add(createProtocol("B", Collections.emptyList(), Collections.singletonList(new Method("reset", Collections.emptyList()))));
+    assertEquals(1, merger.getMethods().size());
+    assertEquals(1, merger.getMergedCount());
+    assertTrue(merger.getConflicts().isEmpty());
+  }
+
+  public void testShouldMergeMethods_whenTypesResolveToSameType() {
+    merger.add(createProtocol("A", Collections.emptyList(), Collections.singletonList(createMethod("load", "with", "Array<String>", "Int"))));
+    merger.add(createProtocol("B", Collections.emptyList(), Collections.singletonList(createMethod("load", "with", "[String]", "Int"))));
+    assertEquals(1, merger.getMethods().size());
+    assertTrue(merger.getConflicts().isEmpty());
+  }
+
+  public void testShouldKeepOverloadsWithDifferentLabels() {
+    merger.add(createProtocol("A", Collections.emptyList(), Collections.singletonList(createMethod("load", "with", "Int", null))));
+    merger.add(createProtocol("B", Collections.emptyList(), Collections.singletonList(createMethod("load", "from", "Int", null))));
+    assertEquals(2, merger.getMethods().size());
+  }
+
+  public void testShouldKeepOverloadsWithDifferentTypes() {
+    merger.add(createProtocol("A", Collections.emptyList(), Collections.singletonList(createMethod("load", "with", "Int", null))));
+    merger.add(createProtocol("B", Collections.emptyList(), Collections.singletonList(createMethod("load", "with", "String", null))));
+    assertEquals(2, merger.getMethods().size());
+  }
+
+  public void testShouldKeepOverloadsByReturnType_whenReturnTypesDifferAcrossProtocols() {
+    merger.add(createProtocol("A", Collections.emptyList(), Collections.singletonList(createMethod("reset", "to", "Int", "Int"))));
+    merger.add(createProtocol("B", Collections.emptyList(), Collections.singletonList(createMethod("reset", "to", "Int", "String"))));
+    assertEquals(2, merger.getMethods().size());
+    assertEquals("Int", merger.getMethods().get(0).getReturnType());
+    assertEquals("String", merger.getMethods().get(1).getReturnType());
+    assertTrue(merger.getConflicts().isEmpty());
+  }
+
+  public void testShouldMergeMethods_whenReturnTypesResolveToSameType() {
+    merger.add(createProtocol("A", Collections.emptyList(), Collections.singletonList(createMethod("reset", "to", "Int", "[Int]"))));
+    merger.add(createProtocol("B", Collections.emptyList(), Collections.singletonList(createMethod("reset", "to", "Int", "Array<Int>"))));
+    assertEquals(1, merger.getMethods().size());
+    assertEquals(1, merger.getMergedCount());
+  }
+
+  public void testShouldKeepOverloadsByReturnTypeInSameProtocol() {
+    merger.add(createProtocol("A", Collections.emptyList(), Arrays.asList(createMethod("make", "with", "Int", "Int"),
+                                                                           createMethod("make", "with", "Int", "String"))));
+    assertEquals(2, merger.getMethods().size());
+    assertTrue(merger.getConflicts().isEmpty());
+  }
+
+  public void testShouldMergeProperties_whenTypesAreSame() {
+    merger.add(createProtocol("A", Collections.singletonList(createProperty("name", "String", false)), Collections.emptyList()));
+    merger.add(createProtocol("B", Collections.singletonList(createProperty("name", "String", false)), Collections.emptyList()));
+    assertEquals(1, merger.getProperties().size());
+    assertEquals(1, merger.getMergedCount());
+  }
+
+  public void testShouldKeepSetter_whenMergingReadOnlyAndReadWriteProperties() {
+    merger.add(createProtocol("A", Collections.singletonList(createProperty("name", "String", false)), Collections.emptyList()));
+    merger.add(createProtocol("B", Collections.singletonList(createProperty("name", "String", true)), Collections.emptyList()));
+    assertEquals(1, merger.getProperties().size());
+    assertTrue(merger.getProperties().get(0).hasSetter());
+  }
+
+  public void testShouldReportConflict_whenPropertyTypesDiffer() {
+    merger.add(createProtocol("A", Collections.singletonList(createProperty("name", "String", false)), Collections.emptyList()));
+    merger.add(createProtocol("B", Collections.singletonList(createProperty("name", "Int", false)), Collections.emptyList()));
+    assertEquals(1, merger.getProperties().size());
+    assertEquals("String", merger.getProperties().get(0).getType());
+    assertEquals(Collections.singletonList("The property 'name' is declared with different types in 'A' and 'B'. Only the one in 'A' is mocked."),
+                 merger.getConflicts());
+  }
+
+  public void testShouldMergeAssociatedTypes() {
+    merger.add(new ProtocolModel("A", Arrays.asList("Element", "Key"), Collections.emptyList(), Collections.emptyList()));
+    merger.add(new ProtocolModel("B", Collections.singletonList("Element"), Collections.emptyList(), Collections.emptyList()));
+    assertEquals(Arrays.asList("Element", "Key"), merger.getAssociatedTypes());
+  }
+
+  public void testShouldKeepOrderOfFirstDeclarations() {
+    merger.add(createProtocol("A", Collections.emptyList(), Arrays.asList(new Method("a", Collections.emptyList()),
+                                                                           new Method("b", Collections.emptyList()))));
+    merger.add(createProtocol("B", Collections.emptyList(), Arrays.asList(new Method("c", Collections.emptyList()),
+                                                                           new Method("a", Collections.emptyList()))));
+    assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(merger.getMethods().stream().map(Method::getName).toArray()));
+  }
+
+  private static ProtocolModel createProtocol(String name, List<Property> properties, List<Method> methods) {
+    return new ProtocolModel(name, Collections.emptyList(), properties, methods);
+  }
+
+  private static Property createProperty(String name, String type, boolean hasSetter) {
+    return new Property(name, "", type, type, false, hasSetter);
+  }
+
+  private static Method createMethod(String name, String label, String type, String returnType) {
+    Parameter parameter = new Parameter(label + " value: " + type, label + " value", "value", "", type, type, false, null);
+    return new Method(name, Collections.singletonList(parameter), returnType, returnType, false, false);
+  }
+}
@@ -0,0 +1,115 @@
+package codes.seanhenry.model;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ProtocolModelFileTests extends TestCase {
+
+  private Path directory;
+  private Path path;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    directory = Files.createTempDirectory("protocol-models");
+    path = directory.resolve("models.bin");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Files.deleteIfExists(path);
+    Files.deleteIfExists(directory);
+    super.tearDown();
+  }
+
+  public void testShouldReturnNull_whenFileDoesNotExist() {
+    assertNull(ProtocolModelFile.open(path).get("key", "1"));
+  }
+
+  public void testShouldReturnPendingEntryBeforeSaving() {
+    ProtocolModelFile file = ProtocolModelFile.open(path);
+    file.put("key", "1", Collections.singletonList(createModel()));
+    assertTrue(file.isModified());
+    assertModel(file.get("key", "1"));
+  }
+
+  public void testShouldReadSavedEntries() throws IOException {
+    ProtocolModelFile file = ProtocolModelFile.open(path);
+    file.put("key", "1", Collections.singletonList(createModel()));
+    file.put("other", "1", Collections.emptyList());
+    file.save();
+    assertFalse(file.isModified());
+    ProtocolModelFile reopened = ProtocolModelFile.open(path);
+    assertEquals(2, reopened.size());
+    assertModel(reopened.get("key", "1"));
+    assertEquals(Collections.emptyList(), reopened.get("other", "1"));
+  }
+
+  public void testShouldKeepUnchangedEntries_whenSavingAgain() throws IOException {
+    ProtocolModelFile file = ProtocolModelFile.open(path);
+    file.put("key", "1", Collections.singletonList(createModel()));
+    file.save();
+    ProtocolModelFile reopened = ProtocolModelFile.open(path);
+    reopened.put("other", "1", Collections.emptyList());
+    reopened.save();
+    assertModel(ProtocolModelFile.open(path).get("key", "1"));
+  }
+
+  public void testShouldIgnoreEntry_whenVersionDiffers() throws IOException {
+    ProtocolModelFile file = ProtocolModelFile.open(path);
+    file.put("key", "1", Collections.singletonList(createModel()));
+    file.save();
+    assertNull(ProtocolModelFile.open(path).get("key", "2"));
+  }
+
+  public void testShouldTreatCorruptFileAsEmpty() throws IOException {
+    Files.write(path, new byte[]{1, 2, 3});
+    ProtocolModelFile file = ProtocolModelFile.open(path);
+    assertNull(file.get("key", "1"));
+    file.put("key", "1", Collections.singletonList(createModel()));
+    file.save();
+    assertModel(ProtocolModelFile.open(path).get("key", "1"));
+  }
+
+  private ProtocolModel createModel() {
+    Parameter parameter = new Parameter("value: Int?", "value", "value", "", "Int?", "Int", true, null);
+    Parameter closure = new Parameter("completion: @escaping (Bool) -> ()", "completion", "completion", "@escaping",
+                                      "(Bool) -> ()", "(Bool) -> ()", false, new Closure(Collections.singletonList("Bool"), true));
+    return new ProtocolModel(
+      "UITextFieldDelegate",
+      Collections.singletonList("Element"),
+      Collections.singletonList(new Property("text", "", "String?", "String", true, true)),
+      Arrays.asList(new Method("clear", Collections.emptyList()),
+                    new Method("load", Arrays.asList(parameter, closure), "Bool", "Bool", false, false))
+    );
+  }
+
+  private void assertModel(List<ProtocolModel> models) {
+    assertEquals(1, models.size());
+    ProtocolModel model = models.get(0);
+    assertEquals("UITextFieldDelegate", model.getName());
+    assertEquals(Collections.singletonList("Element"), model.getAssociatedTypes());
+    Property property = model.getProperties().get(0);
+    assertEquals("text", property.getName());
+    assertEquals("String?", property.getType());
+    assertTrue(property.isOptional());
+    assertTrue(property.hasSetter());
+    Method clear = model.getMethods().get(0);
+    assertNull(clear.getReturnType());
+    assertTrue(clear.getParameters().isEmpty());
+    Method load = model.getMethods().get(1);
+    assertEquals("Bool", load.getReturnType());
+    assertEquals(load.getSignature().toString(), createModel().getMethods().get(1).getSignature().toString());
+    Parameter closure = load.getParameters().get(1);
+    assertEquals("@escaping", closure.getAttributes());
+    assertEquals(Collections.singletonList("Bool"), closure.getClosure().getParameterTypes());
+    assertTrue(closure.getClosure().isOptional());
+    assertFalse(load.getParameters().get(0).isClosure());
+  }
+}
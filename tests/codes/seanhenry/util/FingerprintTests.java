@@ -0,0 +1,28 @@
+package codes.seanhenry.util;
+
+import junit.framework.TestCase;
+
+public class FingerprintTests extends TestCase {
+
+  public void testShouldBeStable() {
+    assertEquals(new Fingerprint().add("func a()").getHash(), new Fingerprint().add("func a()").getHash());
+    assertEquals("cbf29ce484222325", Fingerprint.toHex(new Fingerprint().getHash()));
+  }
+
+  public void testShouldSeparateStrings() {
+    long ab = new Fingerprint().add("ab").add("c").getHash();
+    long bc = new Fingerprint().add("a").add("bc").getHash();
+    assertFalse(ab == bc);
+  }
+
+  public void testShouldDependOnOrder() {
+    long first = new Fingerprint().add(1).add(2).getHash();
+    long second = new Fingerprint().add(2).add(1).getHash();
+    assertFalse(first == second);
+  }
+
+  public void testShouldPadHex() {
+    assertEquals("000000000000000f", Fingerprint.toHex(15));
+    assertEquals(16, Fingerprint.toHex(-1).length());
+  }
+}
@@ -0,0 +1,59 @@
+package codes.seanhenry.util;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class LongestCommonSubsequenceTests extends TestCase {
+
+  public void testShouldMatchIdenticalLists() {
+    assertMatches(new int[]{0, 1, 2}, "a b c", "a b c");
+  }
+
+  public void testShouldKeepMembersBetween_whenMemberMovesUp() {
+    assertMatches(new int[]{-1, 0, 1, 2, 3}, "a b c d e", "e a b c d");
+  }
+
+  public void testShouldKeepMembersBetween_whenMemberMovesDown() {
+    assertMatches(new int[]{1, 2, 3, -1}, "a b c d", "b c d a");
+  }
+
+  public void testShouldSkipInsertedAndRemovedMembers() {
+    assertMatches(new int[]{0, -1, 2, 3}, "a b c d", "a x c d");
+  }
+
+  public void testShouldMatchRepeatedElementsInOrder() {
+    assertMatches(new int[]{0, 1, -1}, "a a", "a a a");
+  }
+
+  public void testShouldMatchNothing_whenListsShareNothing() {
+    assertMatches(new int[]{-1, -1}, "a b", "c d");
+    assertEquals(0, LongestCommonSubsequence.match(Collections.emptyList(), Collections.emptyList()).length);
+  }
+
+  public void testShouldFindLongestSubsequence() {
+    int[] matches = LongestCommonSubsequence.match(split("a b c d e f g"), split("g c d e f a b"));
+    assertEquals(4, Arrays.stream(matches).filter(m -> m != -1).count());
+  }
+
+  public void testShouldMatchLargeListsWithOneMove() {
+    List<String> source = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      source.add("member" + i);
+    }
+    List<String> target = new ArrayList<>(source);
+    target.add(0, target.remove(target.size() - 1));
+    assertEquals(9_999, Arrays.stream(LongestCommonSubsequence.match(source, target)).filter(m -> m != -1).count());
+  }
+
+  private static void assertMatches(int[] expected, String source, String target) {
+    assertEquals(Arrays.toString(expected), Arrays.toString(LongestCommonSubsequence.match(split(source), split(target))));
+  }
+
+  private static List<String> split(String text) {
+    return Arrays.asList(text.split(" "));
+  }
+}
@@ -0,0 +1,63 @@
+package codes.seanhenry.util;
+
+import junit.framework.TestCase;
+
+public class MethodSignatureTests extends TestCase {
+
+  public void testShouldParseLabelsAndTypes() {
+    MethodSignature signature = MethodSignature.parse("set", "_ value: String", "forKey key: String = \"\"");
+    assertEquals("set", signature.getMethodName());
+    assertEquals(2, signature.getParameterCount());
+    assertEquals("_", signature.getLabel(0));
+    assertEquals("String", signature.getType(0));
+    assertEquals("forKey", signature.getLabel(1));
+    assertEquals("String", signature.getType(1));
+  }
+
+  public void testShouldParseIncompleteParameters() {
+    MethodSignature signature = MethodSignature.parse("method", "param", ":Int", "");
+    assertEquals("param", signature.getLabel(0));
+    assertEquals("", signature.getType(0));
+    assertEquals("", signature.getLabel(1));
+    assertEquals("Int", signature.getType(1));
+    assertEquals("", signature.getLabel(2));
+    assertEquals("", signature.getType(2));
+  }
+
+  public void testShouldNotSplitTypeAtNestedColons() {
+    MethodSignature signature = MethodSignature.parse("method", "values: [String: Int] = [:]");
+    assertEquals("values", signature.getLabel(0));
+    assertEquals("[String:Int]", signature.getType(0));
+  }
+
+  public void testShouldCanonicaliseSugaredTypes() {
+    assertEquals("[String:Int]", MethodSignature.canonicaliseType("Dictionary<String, Int>"));
+    assertEquals("[String:Int]", MethodSignature.canonicaliseType("[String : Int]"));
+    assertEquals("[Int]", MethodSignature.canonicaliseType("Array<Int>"));
+    assertEquals("[Int]", MethodSignature.canonicaliseType("Swift.Array<Int>"));
+    assertEquals("Int?", MethodSignature.canonicaliseType("Optional<Int>"));
+    assertEquals("Int!", MethodSignature.canonicaliseType("ImplicitlyUnwrappedOptional<Int>"));
+    assertEquals("[[String]:[Int?]]", MethodSignature.canonicaliseType("Dictionary<Array<String>, [Optional<Int>]>"));
+    assertEquals("((Int)->Void)?", MethodSignature.canonicaliseType("Optional<(Int) -> Void>"));
+    assertEquals("Set<Int>", MethodSignature.canonicaliseType("Set<Int>"));
+  }
+
+  public void testShouldBeEqual_whenTypesAreEquivalent() {
+    MethodSignature sugared = MethodSignature.parse("method", "values: [String: Int]");
+    MethodSignature desugared = MethodSignature.parse("method", "values: Dictionary<String, Int>");
+    assertEquals(sugared, desugared);
+    assertEquals(sugared.hashCode(), desugared.hashCode());
+    assertSame(sugared.getType(0), desugared.getType(0));
+  }
+
+  public void testShouldNotBeEqual_whenLabelsDiffer() {
+    assertFalse(MethodSignature.parse("method", "a: Int").equals(MethodSignature.parse("method", "b: Int")));
+  }
+
+  public void testShouldNotBeEqual_whenReturnTypesDiffer() {
+    MethodSignature signature = MethodSignature.parse("method", "a: Int");
+    assertFalse(signature.withReturnType("Int").equals(signature.withReturnType("String")));
+    assertEquals(signature.withReturnType("[Int]"), signature.withReturnType("Array<Int>"));
+    assertEquals("method(a:Int,)->[Int]", signature.withReturnType("Array<Int>").toString());
+  }
+}
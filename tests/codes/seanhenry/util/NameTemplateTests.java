@@ -0,0 +1,58 @@
+package codes.seanhenry.util;
+
+import junit.framework.TestCase;
+
+public class NameTemplateTests extends TestCase {
+
+  public void testShouldCapitaliseUpperCasePlaceholder() {
+    assertEquals("invokedAnimateParameters", NameTemplate.compile("invoked{Name}Parameters", "name").format("animate"));
+  }
+
+  public void testShouldInsertLowerCasePlaceholderUnchanged() {
+    assertEquals("animateCallCount", NameTemplate.compile("{name}CallCount", "name").format("animate"));
+  }
+
+  public void testShouldInsertPlaceholdersInTemplateOrder() {
+    NameTemplate template = NameTemplate.compile("{param}Of{Method}", "method", "param");
+    assertEquals("completionOfAnimate", template.format("animate", "completion"));
+  }
+
+  public void testShouldHandle1LetterName() {
+    assertEquals("stubbedA", NameTemplate.compile("stubbed{Name}", "name").format("a"));
+  }
+
+  public void testShouldAppendToBuilder() {
+    StringBuilder builder = new StringBuilder("var ");
+    NameTemplate.compile("invoked{Name}", "name").appendTo(builder, "name");
+    assertEquals("var invokedName", builder.toString());
+  }
+
+  public void testShouldRejectMissingPlaceholder() {
+    assertInvalid("stubbedResult", "name");
+  }
+
+  public void testShouldRejectUnknownPlaceholder() {
+    assertInvalid("{value}Result", "name");
+  }
+
+  public void testShouldRejectUnclosedPlaceholder() {
+    assertInvalid("{name", "name");
+  }
+
+  public void testShouldRejectCharactersNotAllowedInNames() {
+    assertInvalid("{name}-Result", "name");
+  }
+
+  public void testShouldRejectLeadingDigit() {
+    assertInvalid("1{name}", "name");
+  }
+
+  private void assertInvalid(String pattern, String... placeholders) {
+    try {
+      NameTemplate.compile(pattern, placeholders);
+      fail("Expected '" + pattern + "' to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertNotNull(e.getMessage());
+    }
+  }
+}
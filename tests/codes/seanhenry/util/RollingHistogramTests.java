@@ -0,0 +1,54 @@
+package codes.seanhenry.util;
+
+import junit.framework.TestCase;
+
+public class RollingHistogramTests extends TestCase {
+
+  public void testShouldReturnZero_whenEmpty() {
+    RollingHistogram histogram = new RollingHistogram(10);
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getPercentile(50));
+    assertEquals(0, histogram.getMax());
+  }
+
+  public void testShouldCalculatePercentiles() {
+    RollingHistogram histogram = new RollingHistogram(100);
+    for (int i = 100; 0 < i; i--) {
+      histogram.add(i);
+    }
+    assertEquals(50, histogram.getPercentile(50));
+    assertEquals(90, histogram.getPercentile(90));
+    assertEquals(99, histogram.getPercentile(99));
+    assertEquals(100, histogram.getMax());
+    assertEquals(5050, histogram.getTotal());
+  }
+
+  public void testShouldOnlyKeepRecentSamples() {
+    RollingHistogram histogram = new RollingHistogram(2);
+    histogram.add(1000);
+    histogram.add(1);
+    histogram.add(2);
+    assertEquals(2, histogram.getMax());
+    assertEquals(3, histogram.getCount());
+    assertEquals(1003, histogram.getTotal());
+  }
+
+  public void testShouldClear() {
+    RollingHistogram histogram = new RollingHistogram(2);
+    histogram.add(5);
+    histogram.clear();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+  }
+
+  public void testStatisticsShouldRecordPhasesAndCounters() {
+    GenerationStatistics statistics = new GenerationStatistics();
+    assertEquals("value", statistics.measure(GenerationStatistics.Phase.RENDER, () -> "value"));
+    statistics.increment(GenerationStatistics.Counter.MEMBERS_EMITTED, 3);
+    assertEquals(1, statistics.getHistogram(GenerationStatistics.Phase.RENDER).getCount());
+    assertEquals(3, statistics.getCount(GenerationStatistics.Counter.MEMBERS_EMITTED));
+    assertTrue(statistics.getReport().contains("3 members emitted"));
+    statistics.reset();
+    assertEquals(0, statistics.getCount(GenerationStatistics.Counter.MEMBERS_EMITTED));
+  }
+}
@@ -0,0 +1,58 @@
+package codes.seanhenry.util;
+
+import junit.framework.TestCase;
+
+public class SwiftCodeFormatterTests extends TestCase {
+
+  private SwiftCodeFormatter formatter;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    formatter = SwiftCodeFormatter.create(false, 4, false, false);
+  }
+
+  public void testShouldIndentFirstLine() {
+    assertEquals("    var invoked = false", formatter.format("var invoked = false", "    "));
+  }
+
+  public void testShouldIndentNestedBlocks() {
+    String code = "func a() {\n" +
+                  "invokedA = true\n" +
+                  "if let result = stubbedResult {\n" +
+                  "closure(result)\n" +
+                  "}\n" +
+                  "}";
+    String expected = "    func a() {\n" +
+                      "        invokedA = true\n" +
+                      "        if let result = stubbedResult {\n" +
+                      "            closure(result)\n" +
+                      "        }\n" +
+                      "    }";
+    assertEquals(expected, formatter.format(code, "    "));
+  }
+
+  public void testShouldIgnoreExistingIndentationAndBlankLines() {
+    String code = "var a: Int {\n\n      return stubbedA\n  }";
+    assertEquals("var a: Int {\n    return stubbedA\n}", formatter.format(code, ""));
+  }
+
+  public void testShouldIndentWithTabs() {
+    formatter = SwiftCodeFormatter.create(true, 4, false, false);
+    assertEquals("\tvar a: Int {\n\t\treturn stubbedA\n\t}", formatter.format("var a: Int {\nreturn stubbedA\n}", "\t"));
+  }
+
+  public void testShouldPlaceFunctionBraceOnNextLine() {
+    formatter = SwiftCodeFormatter.create(false, 2, true, false);
+    String code = "public func a() {\nif let result = b {\nc(result)\n}\n}";
+    String expected = "public func a()\n{\n  if let result = b {\n    c(result)\n  }\n}";
+    assertEquals(expected, formatter.format(code, ""));
+  }
+
+  public void testShouldPlaceOtherBracesOnNextLine() {
+    formatter = SwiftCodeFormatter.create(false, 2, false, true);
+    String code = "var a: Int {\nset {\ninvokedA = newValue\n}\n}";
+    String expected = "var a: Int\n{\n  set\n  {\n    invokedA = newValue\n  }\n}";
+    assertEquals(expected, formatter.format(code, ""));
+  }
+}
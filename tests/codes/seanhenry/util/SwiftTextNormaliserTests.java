@@ -0,0 +1,28 @@
+package codes.seanhenry.util;
+
+import junit.framework.TestCase;
+
+public class SwiftTextNormaliserTests extends TestCase {
+
+  public void testShouldIgnoreFormatting() {
+    assertEquals(SwiftTextNormaliser.normalise("func a(b: Int) {\nreturn\n}"),
+                 SwiftTextNormaliser.normalise("  func a( b:Int )\n  {\n    return\n  }\n"));
+  }
+
+  public void testShouldCollapseWhitespaceBetweenWords() {
+    assertEquals("public var a:Int", SwiftTextNormaliser.normalise("public   var\n a : Int"));
+  }
+
+  public void testShouldKeepWordsApart() {
+    assertFalse(SwiftTextNormaliser.normalise("@objc func a()").equals(SwiftTextNormaliser.normalise("@objcfunc a()")));
+  }
+
+  public void testShouldKeepWhitespaceInStringLiterals() {
+    assertEquals("a=\"b  c\"", SwiftTextNormaliser.normalise("a = \"b  c\""));
+    assertFalse(SwiftTextNormaliser.normalise("a = \"b c\"").equals(SwiftTextNormaliser.normalise("a = \"bc\"")));
+  }
+
+  public void testShouldKeepEscapedQuotesInStringLiterals() {
+    assertEquals("a=\"\\\" b  \"c", SwiftTextNormaliser.normalise("a = \"\\\" b  \"  c"));
+  }
+}